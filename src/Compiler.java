@@ -1,3 +1,4 @@
+import backend.config.*;
 import backend.data.*;
 import backend.ir.*;
 import backend.mips.*;
@@ -10,22 +11,36 @@ import frontend.utils.*;
 import optimize.*;
 
 import java.io.*;
-import java.util.*;
+import java.nio.*;
 
 public class Compiler {
     private static final ErrorList errorList = new ErrorList();
     private static final Version version = Version.code;
     private static final boolean optimize = true;
+    private static final boolean passTiming = false;
+    private static final boolean peepholeReport = false;
+    private static final int parallelism = Runtime.getRuntime().availableProcessors();
+    private static final MipsGenerator.Mode mipsMode = MipsGenerator.Mode.coloring;
+    private static final Latency latency = Latency.DEFAULT;
+    private static final Lexer.Mode lexerMode = Lexer.Mode.dfa;
+    private static final boolean streaming = true;
+    private static final boolean lexerOutput = true;
+    private static final boolean lexerTiming = false;
 
     public static void main(String[] args) throws IOException {
-        ArrayList<String> lines = FileIO.readlines("testfile.txt");
-        Lexer lexer = new Lexer(lines);
-        TokenList tokenList = lexer.tokenizer();
+        CharBuffer source = FileIO.readchars("testfile.txt");
+        if (lexerTiming) {
+            FileIO.writefile("lexer_timing.txt", Lexer.getTimingReport(source, 5));
+        }
+        Lexer lexer = new Lexer(source, lexerMode, lexerOutput || !streaming);
+        Parser parser = streaming ? new Parser(lexer) : new Parser(lexer.tokenizer());
+        CompUnit compUnit = version != Version.lexer ? parser.parseCompUnit() : null;
+        lexer.tokenizer();
         errorList.addAllError(lexer.getErrorList());
-        FileIO.writefile("lexer.txt", tokenList.toString());
+        if (lexerOutput) {
+            FileIO.writefile("lexer.txt", lexer.getTokenList().toString());
+        }
         if (version != Version.lexer) {
-            Parser parser = new Parser(lexer.getTokenList());
-            CompUnit compUnit = parser.parseCompUnit();
             errorList.addAllError(parser.getErrorList());
             FileIO.writefile("parser.txt", compUnit.toString());
             if (version != Version.parser) {
@@ -37,13 +52,19 @@ public class Compiler {
                     IrGenerator irGenerator = new IrGenerator(compUnit, symbolTree);
                     IrList irList = irGenerator.generateCompUnit();
                     if (optimize) {
-                        Optimize optimize = new Optimize(irList);
+                        Optimize optimize = new Optimize(irList, parallelism);
                         irList = optimize.optimize();
+                        if (passTiming) {
+                            FileIO.writefile("timing.txt", optimize.getTimingReport());
+                        }
                     }
                     FileIO.writefile("ir.txt", irList.toString());
-                    MipsGenerator mipsGenerator = new MipsGenerator(irList);
+                    MipsGenerator mipsGenerator = new MipsGenerator(irList, mipsMode, latency);
                     String mipsCode = mipsGenerator.generate();
                     FileIO.writefile("mips.txt", mipsCode);
+                    if (peepholeReport) {
+                        FileIO.writefile("peephole.txt", "removed " + mipsGenerator.getPeepholeRemoved() + " instructions\nscheduled away " + mipsGenerator.getScheduleSaved() + " stall cycles\n");
+                    }
                 }
             }
         }
@@ -0,0 +1,14 @@
+package backend.config;
+
+public record Latency(int load, int multiply, int divide, boolean delaySlot) {
+    public static final Latency DEFAULT = new Latency(2, 3, 36, false);
+
+    public int of(MipsOp op) {
+        return switch (op) {
+            case LW -> load;
+            case MULT -> multiply;
+            case DIV -> divide;
+            default -> 1;
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package backend.config;
+
+import java.util.*;
+
+public enum MipsOp {
+    ADDU("addu", Format.arith),
+    SUBU("subu", Format.arith),
+    MULU("mulu", Format.arith, 4),
+    MULT("mult", Format.arith, 3),
+    DIV("div", Format.arith, 50),
+    SLT("slt", Format.arith),
+    SGT("sgt", Format.arith),
+    SLE("sle", Format.arith),
+    SGE("sge", Format.arith),
+    SEQ("seq", Format.arith),
+    SNE("sne", Format.arith),
+    SLLV("sllv", Format.arith),
+    SRAV("srav", Format.arith),
+    SRLV("srlv", Format.arith),
+    AND("and", Format.arith),
+    SLL("sll", Format.arith),
+    SRA("sra", Format.arith),
+    SRL("srl", Format.arith),
+    ANDI("andi", Format.arith),
+    SLTI("slti", Format.arith),
+    LW("lw", Format.memory, 2),
+    SW("sw", Format.memory, 2),
+    LI("li", Format.constant),
+    LA("la", Format.address),
+    MOVE("move", Format.move),
+    MFHI("mfhi", Format.high),
+    MFLO("mflo", Format.high),
+    BEQ("beq", Format.branch),
+    BNE("bne", Format.branch),
+    BLT("blt", Format.branch),
+    BGE("bge", Format.branch),
+    BGT("bgt", Format.branch),
+    BLE("ble", Format.branch),
+    BLTZ("bltz", Format.zero),
+    BGEZ("bgez", Format.zero),
+    BGTZ("bgtz", Format.zero),
+    BLEZ("blez", Format.zero),
+    J("j", Format.jump),
+    JAL("jal", Format.jump),
+    JR("jr", Format.register),
+    SYSCALL("syscall", Format.none),
+    NOP("nop", Format.none),
+    LABEL("label", Format.label),
+    COMMENT("#", Format.comment),
+    TEXT("text", Format.text);
+
+    private static final HashMap<String, MipsOp> codes = new HashMap<>();
+    private final String code;
+    private final Format format;
+    private final int cost;
+
+    static {
+        for (MipsOp op : values()) {
+            codes.put(op.code, op);
+        }
+    }
+
+    MipsOp(String code, Format format) {
+        this(code, format, 1);
+    }
+
+    MipsOp(String code, Format format, int cost) {
+        this.code = code;
+        this.format = format;
+        this.cost = cost;
+    }
+
+    public static MipsOp of(String code) {
+        return codes.get(code);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public boolean isBranch() {
+        return format == Format.branch || format == Format.zero;
+    }
+
+    public MipsOp negate() {
+        return switch (this) {
+            case BEQ -> BNE;
+            case BNE -> BEQ;
+            case BLT -> BGE;
+            case BGE -> BLT;
+            case BGT -> BLE;
+            case BLE -> BGT;
+            case BLTZ -> BGEZ;
+            case BGEZ -> BLTZ;
+            case BGTZ -> BLEZ;
+            case BLEZ -> BGTZ;
+            default -> null;
+        };
+    }
+
+    public MipsOp swap() {
+        return switch (this) {
+            case BLT -> BGT;
+            case BGT -> BLT;
+            case BGE -> BLE;
+            case BLE -> BGE;
+            default -> this;
+        };
+    }
+
+    public MipsOp toZero() {
+        return switch (this) {
+            case BLT -> BLTZ;
+            case BGE -> BGEZ;
+            case BGT -> BGTZ;
+            case BLE -> BLEZ;
+            default -> null;
+        };
+    }
+
+    public boolean hasDelaySlot() {
+        return isBranch() || format == Format.jump || format == Format.register;
+    }
+
+    public boolean isPseudo() {
+        return format == Format.label || format == Format.comment || format == Format.text;
+    }
+
+    @Override
+    public String toString() {
+        return this.code;
+    }
+
+    public enum Format {arith, memory, constant, address, move, high, branch, zero, jump, register, none, label, comment, text}
+}
@@ -0,0 +1,71 @@
+package backend.config;
+
+public enum OpType {
+    ALLOC("alloc"),
+    ARRAY_ALLOC("array_alloc"),
+    ASSIGN("assign"),
+    LOAD("load"),
+    STORE("store"),
+    LABEL("label"),
+    J("j"),
+    BEQ("beq"),
+    PARAM("param"),
+    CALL("call"),
+    RET("ret"),
+    GET_INT("get_int"),
+    PRINT("print"),
+    PRINTF("printf"),
+    FUNC_BEGIN("func_begin"),
+    FUNC_END("func_end"),
+    FUNC_PARAM("func_param"),
+    ADDU("addu", true),
+    SUBU("subu", false),
+    MULU("mulu", true),
+    DIV("div", false),
+    MOD("mod", false),
+    SLT("slt", false),
+    SGT("sgt", false),
+    SLE("sle", false),
+    SGE("sge", false),
+    SEQ("seq", true),
+    SNE("sne", true),
+    SLLV("sllv", false),
+    SRAV("srav", false),
+    SRLV("srlv", false),
+    AND("and", true),
+    MULHI("mulhi", true);
+
+    private static final OpType[] types = values();
+    private final String code;
+    private final boolean calculable;
+    private final boolean swappable;
+
+    OpType(String code) {
+        this.code = code;
+        this.calculable = false;
+        this.swappable = false;
+    }
+
+    OpType(String code, boolean swappable) {
+        this.code = code;
+        this.calculable = true;
+        this.swappable = swappable;
+    }
+
+    public static OpType get(int ordinal) {
+        return types[ordinal];
+    }
+
+    public boolean canCalculate() {
+        return calculable;
+    }
+
+    public boolean canSwap() {
+        return swappable;
+    }
+
+    @Override
+    public String toString() {
+        return this.code;
+    }
+}
@@ -0,0 +1,9 @@
+package backend.config;
+
+public enum OperandType {
+    None, Temp, Local, Global, Param, Immediate, Label, Literal, Function, Text, Tag;
+
+    public boolean isVar() {
+        return this == Temp || this == Local || this == Global || this == Param;
+    }
+}
@@ -4,9 +4,17 @@ import java.util.*;
 
 public class FuncStack {
     private final String name;
-    private final HashMap<String, Integer> localOffsets = new HashMap<>();
-    private final HashMap<String, Integer> paramOffsets = new HashMap<>();
+    private final HashMap<Operand, Integer> localOffsets = new HashMap<>();
+    private final HashMap<Operand, Integer> paramOffsets = new HashMap<>();
+    private final HashMap<Operand, String> registers = new HashMap<>();
+    private final LinkedHashMap<String, Integer> savedOffsets = new LinkedHashMap<>();
+    private final ArrayList<Operand> params = new ArrayList<>();
+    private final HashMap<Operand, String> arguments = new HashMap<>();
+    private final ArrayList<Integer> stagingOffsets = new ArrayList<>();
     private int stackSize = 0;
+    private int returnOffset = 0;
+    private int outgoing = 0;
+    private boolean leaf = true;
 
     public FuncStack(String name) {
         this.name = name;
@@ -24,27 +32,87 @@ public class FuncStack {
         return name;
     }
 
-    public HashMap<String, Integer> getLocalOffsets() {
+    public HashMap<Operand, Integer> getLocalOffsets() {
         return localOffsets;
     }
 
-    public HashMap<String, Integer> getParamOffsets() {
+    public HashMap<Operand, Integer> getParamOffsets() {
         return paramOffsets;
     }
 
-    public void putParam(String param, int offset) {
+    public void putParam(Operand param, int offset) {
         paramOffsets.put(param, offset);
     }
 
-    public void putLocal(String local, int offset) {
+    public void putLocal(Operand local, int offset) {
         localOffsets.put(local, offset);
     }
 
-    public boolean containsParam(String param) {
+    public boolean containsParam(Operand param) {
         return paramOffsets.containsKey(param);
     }
 
-    public boolean containsLocal(String local) {
+    public boolean containsLocal(Operand local) {
         return localOffsets.containsKey(local);
     }
+
+    public void putRegister(Operand var, String reg) {
+        registers.put(var, reg);
+    }
+
+    public String getRegister(Operand var) {
+        return registers.get(var);
+    }
+
+    public HashMap<Operand, String> getRegisters() {
+        return registers;
+    }
+
+    public void putSaved(String reg, int offset) {
+        savedOffsets.put(reg, offset);
+    }
+
+    public LinkedHashMap<String, Integer> getSavedOffsets() {
+        return savedOffsets;
+    }
+
+    public ArrayList<Operand> getParams() {
+        return params;
+    }
+
+    public void putArgument(Operand param, String reg) {
+        arguments.put(param, reg);
+    }
+
+    public String getArgument(Operand param) {
+        return arguments.get(param);
+    }
+
+    public ArrayList<Integer> getStagingOffsets() {
+        return stagingOffsets;
+    }
+
+    public int getReturnOffset() {
+        return returnOffset;
+    }
+
+    public void setReturnOffset(int returnOffset) {
+        this.returnOffset = returnOffset;
+    }
+
+    public int getOutgoing() {
+        return outgoing;
+    }
+
+    public void setOutgoing(int outgoing) {
+        this.outgoing = outgoing;
+    }
+
+    public boolean isLeaf() {
+        return leaf;
+    }
+
+    public void setLeaf(boolean leaf) {
+        this.leaf = leaf;
+    }
 }
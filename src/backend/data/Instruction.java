@@ -0,0 +1,159 @@
+package backend.data;
+
+import backend.config.*;
+
+import java.util.*;
+
+public record Instruction(MipsOp op, String rd, String rs, String rt, int imm, String label) {
+    public static final String HILO = "$hilo";
+
+    public static Instruction of(MipsOp op, String rd, String rs, String rt) {
+        return new Instruction(op, rd, rs, rt, 0, null);
+    }
+
+    public static Instruction imm(MipsOp op, String rd, String rs, int imm) {
+        return new Instruction(op, rd, rs, null, imm, null);
+    }
+
+    public static Instruction mem(MipsOp op, String reg, int offset, String base) {
+        return new Instruction(op, reg, base, null, offset, null);
+    }
+
+    public static Instruction mem(MipsOp op, String reg, String label) {
+        return new Instruction(op, reg, null, null, 0, label);
+    }
+
+    public static Instruction li(String rd, int imm) {
+        return new Instruction(MipsOp.LI, rd, null, null, imm, null);
+    }
+
+    public static Instruction la(String rd, String label) {
+        return new Instruction(MipsOp.LA, rd, null, null, 0, label);
+    }
+
+    public static Instruction move(String rd, String rs) {
+        return new Instruction(MipsOp.MOVE, rd, rs, null, 0, null);
+    }
+
+    public static Instruction high(MipsOp op, String rd) {
+        return new Instruction(op, rd, null, null, 0, null);
+    }
+
+    public static Instruction branch(MipsOp op, String rs, String rt, String label) {
+        return new Instruction(op, null, rs, rt, 0, label);
+    }
+
+    public static Instruction branch(MipsOp op, String rs, int imm, String label) {
+        return new Instruction(op, null, rs, null, imm, label);
+    }
+
+    public static Instruction zero(MipsOp op, String rs, String label) {
+        return new Instruction(op, null, rs, null, 0, label);
+    }
+
+    public static Instruction jump(MipsOp op, String label) {
+        return new Instruction(op, null, null, null, 0, label);
+    }
+
+    public static Instruction jr(String rs) {
+        return new Instruction(MipsOp.JR, null, rs, null, 0, null);
+    }
+
+    public static Instruction syscall() {
+        return new Instruction(MipsOp.SYSCALL, null, null, null, 0, null);
+    }
+
+    public static Instruction nop() {
+        return new Instruction(MipsOp.NOP, null, null, null, 0, null);
+    }
+
+    public static Instruction label(String name) {
+        return new Instruction(MipsOp.LABEL, null, null, null, 0, name);
+    }
+
+    public static Instruction comment(String text) {
+        return new Instruction(MipsOp.COMMENT, null, null, null, 0, text);
+    }
+
+    public static Instruction text(String text) {
+        return new Instruction(MipsOp.TEXT, null, null, null, 0, text);
+    }
+
+    public Instruction withLabel(String label) {
+        return new Instruction(op, rd, rs, rt, imm, label);
+    }
+
+    public Instruction negate(String label) {
+        return new Instruction(op.negate(), rd, rs, rt, imm, label);
+    }
+
+    public String getDef() {
+        return switch (op.getFormat()) {
+            case arith -> rd != null ? rd : HILO;
+            case memory -> op == MipsOp.LW ? rd : null;
+            case constant, address, move, high -> rd;
+            case jump -> op == MipsOp.JAL ? "$ra" : null;
+            case none -> op == MipsOp.SYSCALL ? "$v0" : null;
+            default -> null;
+        };
+    }
+
+    public List<String> getUses() {
+        ArrayList<String> uses = new ArrayList<>(2);
+        switch (op.getFormat()) {
+            case arith, branch -> {
+                uses.add(rs);
+                if (rt != null) uses.add(rt);
+            }
+            case memory -> {
+                if (op == MipsOp.SW) uses.add(rd);
+                if (label == null) uses.add(rs);
+            }
+            case move, register, zero -> uses.add(rs);
+            case high -> uses.add(HILO);
+            case none -> {
+                if (op == MipsOp.SYSCALL) uses.addAll(List.of("$v0", "$a0"));
+            }
+        }
+        return uses;
+    }
+
+    public boolean isMemory() {
+        return op.getFormat() == MipsOp.Format.memory;
+    }
+
+    public boolean sameAddress(Instruction other) {
+        return Objects.equals(label, other.label) && Objects.equals(rs, other.rs) && imm == other.imm;
+    }
+
+    public boolean isJump() {
+        return op == MipsOp.J || op == MipsOp.JR;
+    }
+
+    public boolean isBarrier() {
+        return switch (op.getFormat()) {
+            case branch, zero, jump, register, none, label -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return switch (op.getFormat()) {
+            case arith -> rd == null ? op + " " + rs + ", " + rt : op + " " + rd + ", " + rs + ", " + (rt != null ? rt : imm);
+            case memory -> op + " " + rd + ", " + (label != null ? label : imm + "(" + rs + ")");
+            case constant -> op + " " + rd + ", " + imm;
+            case address -> op + " " + rd + ", " + label;
+            case move -> op + " " + rd + ", " + rs;
+            case high -> op + " " + rd;
+            case branch -> op + " " + rs + ", " + (rt != null ? rt : imm) + ", " + label;
+            case zero -> op + " " + rs + ", " + label;
+            case jump -> op + " " + label;
+            case register -> op + " " + rs;
+            case none -> op.toString();
+            case label -> label + ":";
+            case comment -> "# " + label;
+            case text -> label;
+        };
+    }
+}
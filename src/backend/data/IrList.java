@@ -1,39 +1,380 @@
 package backend.data;
 
+import backend.config.*;
+
 import java.util.*;
 
-public class IrList {
-    private final ArrayList<Quadruple> irList = new ArrayList<>();
+public class IrList implements Iterable<Quad> {
+    private static final int REMOVED = -1;
+    private int[] ops;
+    private int[] arg1s;
+    private int[] arg2s;
+    private int[] results;
+    private int gapStart = 0;
+    private int gapEnd;
+    private int removed = 0;
+    private int modCount = 0;
 
-    public void add(Quadruple quad) {
-        this.irList.add(quad);
+    public IrList() {
+        this(16);
     }
 
-    public ArrayList<Quadruple> getIRList() {
-        return irList;
+    public IrList(int capacity) {
+        capacity = Math.max(capacity, 4);
+        this.ops = new int[capacity];
+        this.arg1s = new int[capacity];
+        this.arg2s = new int[capacity];
+        this.results = new int[capacity];
+        this.gapEnd = capacity;
     }
 
-    public int size() {
-        return irList.size();
+    public void add(Quad quad) {
+        add(quad.op(), quad.arg1(), quad.arg2(), quad.result());
+    }
+
+    public void add(OpType op, Operand arg1, Operand arg2, Operand result) {
+        insert(slots(), op, arg1, arg2, result);
     }
 
-    public Quadruple get(int i) {
-        return irList.get(i);
+    public void insert(int index, Quad quad) {
+        compact();
+        insert(index, quad.op(), quad.arg1(), quad.arg2(), quad.result());
+    }
+
+    private void insert(int index, OpType op, Operand arg1, Operand arg2, Operand result) {
+        if (gapStart == gapEnd) {
+            grow(ops.length + 1);
+        }
+        moveGap(index);
+        write(gapStart++, op, arg1, arg2, result);
+        modCount++;
     }
 
     public void addAll(IrList irList) {
-        this.irList.addAll(irList.irList);
+        addAll(irList, 0, irList.size());
+    }
+
+    public void addAll(IrList irList, int from, int to) {
+        irList.compact();
+        irList.moveGap(irList.slots());
+        int count = to - from;
+        if (gapEnd - gapStart < count) {
+            grow(slots() + count);
+        }
+        moveGap(slots());
+        System.arraycopy(irList.ops, from, ops, gapStart, count);
+        System.arraycopy(irList.arg1s, from, arg1s, gapStart, count);
+        System.arraycopy(irList.arg2s, from, arg2s, gapStart, count);
+        System.arraycopy(irList.results, from, results, gapStart, count);
+        gapStart += count;
+        modCount++;
+    }
+
+    public void set(int index, Quad quad) {
+        compact();
+        write(physical(index), quad.op(), quad.arg1(), quad.arg2(), quad.result());
+    }
+
+    public Quadruple get(int index) {
+        compact();
+        return read(physical(index));
+    }
+
+    public OpType getOp(int index) {
+        compact();
+        return OpType.get(ops[physical(index)]);
+    }
+
+    public Operand getArg1(int index) {
+        compact();
+        return Operand.get(arg1s[physical(index)]);
+    }
+
+    public Operand getArg2(int index) {
+        compact();
+        return Operand.get(arg2s[physical(index)]);
+    }
+
+    public Operand getResult(int index) {
+        compact();
+        return Operand.get(results[physical(index)]);
+    }
+
+    public Operand getDef(int index) {
+        compact();
+        int slot = physical(index);
+        return Quad.defOf(OpType.get(ops[slot]), Operand.get(arg1s[slot]), Operand.get(results[slot]));
+    }
+
+    public void remove(int index) {
+        compact();
+        moveGap(index + 1);
+        gapStart--;
+        modCount++;
+    }
+
+    public boolean remove(Quad quad) {
+        int slot = find(quad);
+        if (slot < 0) {
+            return false;
+        }
+        ops[slot] = REMOVED;
+        removed++;
+        modCount++;
+        return true;
+    }
+
+    public int indexOf(Quad quad) {
+        compact();
+        int slot = find(quad);
+        return slot < 0 ? -1 : logical(slot);
+    }
+
+    public boolean contentEquals(IrList irList) {
+        compact();
+        irList.compact();
+        if (size() != irList.size()) {
+            return false;
+        }
+        for (int i = 0; i < size(); i++) {
+            int slot = physical(i);
+            int other = irList.physical(i);
+            if (ops[slot] != irList.ops[other] || arg1s[slot] != irList.arg1s[other] || arg2s[slot] != irList.arg2s[other] || results[slot] != irList.results[other]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        gapStart = 0;
+        gapEnd = ops.length;
+        removed = 0;
+        modCount++;
+    }
+
+    public int size() {
+        return slots() - removed;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void compact() {
+        if (removed == 0) {
+            return;
+        }
+        moveGap(slots());
+        int write = 0;
+        for (int read = 0; read < gapStart; read++) {
+            if (ops[read] != REMOVED) {
+                ops[write] = ops[read];
+                arg1s[write] = arg1s[read];
+                arg2s[write] = arg2s[read];
+                results[write] = results[read];
+                write++;
+            }
+        }
+        gapStart = write;
+        removed = 0;
+        modCount++;
+    }
+
+    private int slots() {
+        return ops.length - (gapEnd - gapStart);
+    }
+
+    private int physical(int index) {
+        if (index < 0 || index >= slots()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index < gapStart ? index : index + (gapEnd - gapStart);
+    }
+
+    private int logical(int slot) {
+        return slot < gapStart ? slot : slot - (gapEnd - gapStart);
+    }
+
+    private int find(Quad quad) {
+        int op = quad.op().ordinal();
+        int arg1 = quad.arg1().getId();
+        int arg2 = quad.arg2().getId();
+        int result = quad.result().getId();
+        for (int slot = 0; slot < ops.length; slot++) {
+            if (slot == gapStart && gapStart < gapEnd) {
+                slot = gapEnd - 1;
+                continue;
+            }
+            if (ops[slot] == op && arg1s[slot] == arg1 && arg2s[slot] == arg2 && results[slot] == result) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void moveGap(int index) {
+        if (index == gapStart) {
+            return;
+        }
+        modCount++;
+        int gap = gapEnd - gapStart;
+        if (index < gapStart) {
+            int count = gapStart - index;
+            shift(index, index + gap, count);
+        } else if (index > gapStart) {
+            int count = index - gapStart;
+            shift(gapEnd, gapStart, count);
+        }
+        gapStart = index;
+        gapEnd = index + gap;
+    }
+
+    private void shift(int from, int to, int count) {
+        System.arraycopy(ops, from, ops, to, count);
+        System.arraycopy(arg1s, from, arg1s, to, count);
+        System.arraycopy(arg2s, from, arg2s, to, count);
+        System.arraycopy(results, from, results, to, count);
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, ops.length << 1);
+        int tail = ops.length - gapEnd;
+        int newGapEnd = capacity - tail;
+        ops = regrow(ops, capacity, tail, newGapEnd);
+        arg1s = regrow(arg1s, capacity, tail, newGapEnd);
+        arg2s = regrow(arg2s, capacity, tail, newGapEnd);
+        results = regrow(results, capacity, tail, newGapEnd);
+        gapEnd = newGapEnd;
+    }
+
+    private int[] regrow(int[] column, int capacity, int tail, int newGapEnd) {
+        int[] larger = Arrays.copyOf(column, capacity);
+        System.arraycopy(column, gapEnd, larger, newGapEnd, tail);
+        return larger;
+    }
+
+    private void write(int slot, OpType op, Operand arg1, Operand arg2, Operand result) {
+        ops[slot] = op.ordinal();
+        arg1s[slot] = (arg1 == null ? Operand.NONE : arg1).getId();
+        arg2s[slot] = (arg2 == null ? Operand.NONE : arg2).getId();
+        results[slot] = (result == null ? Operand.NONE : result).getId();
+    }
+
+    private Quadruple read(int slot) {
+        return new Quadruple(OpType.get(ops[slot]), Operand.get(arg1s[slot]), Operand.get(arg2s[slot]), Operand.get(results[slot]));
+    }
+
+    // Iterators hand out one reused view whose fields change on every next(); call toQuadruple() to keep a quad.
+    // Any change to the list other than through the iterator's own remove() makes the iterator fail fast.
+    @Override
+    public Iterator<Quad> iterator() {
+        return new Cursor(false);
+    }
+
+    public Iterator<Quad> descendingIterator() {
+        return new Cursor(true);
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < irList.size() - 1; i++) {
-            sb.append(irList.get(i)).append("\n");
+        StringJoiner sj = new StringJoiner("\n");
+        for (Quad quad : this) {
+            sj.add(quad.format());
         }
-        if (!irList.isEmpty()) {
-            sb.append(irList.get(irList.size() - 1));
+        return sj.toString();
+    }
+
+    private static class View implements Quad {
+        private OpType op;
+        private Operand arg1;
+        private Operand arg2;
+        private Operand result;
+
+        @Override
+        public OpType op() {
+            return op;
+        }
+
+        @Override
+        public Operand arg1() {
+            return arg1;
+        }
+
+        @Override
+        public Operand arg2() {
+            return arg2;
+        }
+
+        @Override
+        public Operand result() {
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return format();
+        }
+    }
+
+    private class Cursor implements Iterator<Quad> {
+        private final View view = new View();
+        private final boolean descending;
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        Cursor(boolean descending) {
+            this.descending = descending;
+            this.next = descending ? step(ops.length) : step(-1);
+        }
+
+        private int step(int slot) {
+            do {
+                slot += descending ? -1 : 1;
+                if (slot >= gapStart && slot < gapEnd) {
+                    slot = descending ? gapStart - 1 : gapEnd;
+                }
+            } while (slot >= 0 && slot < ops.length && ops[slot] == REMOVED);
+            return slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0 && next < ops.length;
+        }
+
+        @Override
+        public Quad next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = step(next);
+            view.op = OpType.get(ops[last]);
+            view.arg1 = Operand.get(arg1s[last]);
+            view.arg2 = Operand.get(arg2s[last]);
+            view.result = Operand.get(results[last]);
+            return view;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            ops[last] = REMOVED;
+            removed++;
+            last = -1;
+            expectedModCount = ++modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
         }
-        return sb.toString();
     }
 }
@@ -0,0 +1,113 @@
+package backend.data;
+
+import backend.config.*;
+
+import java.util.*;
+
+public final class Operand implements Comparable<Operand> {
+    private static volatile Operand[] operands = new Operand[256];
+    private static int count = 0;
+    private static final EnumMap<OperandType, HashMap<String, Operand>> names = new EnumMap<>(OperandType.class);
+    private static final HashMap<Integer, Operand> immediates = new HashMap<>();
+    public static final Operand NONE = of(OperandType.None, "_");
+    public static final Operand INT = of(OperandType.Tag, "int");
+    public static final Operand VOID = of(OperandType.Tag, "void");
+    public static final Operand ARRAY = of(OperandType.Tag, "array");
+    public static final Operand STATIC = of(OperandType.Tag, "static");
+
+    private final int id;
+    private final OperandType type;
+    private final String name;
+    private final int value;
+    private final int hash;
+
+    private Operand(int id, OperandType type, String name, int value) {
+        this.id = id;
+        this.type = type;
+        this.name = name;
+        this.value = value;
+        this.hash = 31 * type.ordinal() + name.hashCode();
+    }
+
+    public static synchronized Operand of(OperandType type, String name) {
+        HashMap<String, Operand> table = names.computeIfAbsent(type, k -> new HashMap<>());
+        Operand operand = table.get(name);
+        if (operand == null) {
+            operand = register(type, name, 0);
+            table.put(name, operand);
+        }
+        return operand;
+    }
+
+    public static synchronized Operand of(int value) {
+        Operand operand = immediates.get(value);
+        if (operand == null) {
+            operand = register(OperandType.Immediate, String.valueOf(value), value);
+            immediates.put(value, operand);
+        }
+        return operand;
+    }
+
+    private static Operand register(OperandType type, String name, int value) {
+        Operand[] table = operands;
+        if (count == table.length) {
+            table = Arrays.copyOf(table, count << 1);
+        }
+        Operand operand = new Operand(count, type, name, value);
+        table[count++] = operand;
+        operands = table;
+        return operand;
+    }
+
+    public static Operand get(int id) {
+        return operands[id];
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public OperandType getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public boolean isNone() {
+        return type == OperandType.None;
+    }
+
+    public boolean isImmediate() {
+        return type == OperandType.Immediate;
+    }
+
+    public boolean isVar() {
+        return type.isVar();
+    }
+
+    public boolean isLocal() {
+        return type.isVar() && type != OperandType.Global;
+    }
+
+    // Ids follow interning order, which varies when functions are optimized in parallel, so hashing and ordering use the name.
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public int compareTo(Operand other) {
+        return type != other.type ? Integer.compare(type.ordinal(), other.type.ordinal()) : name.compareTo(other.name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,79 @@
+package backend.data;
+
+import backend.config.*;
+
+import java.util.*;
+import java.util.function.*;
+
+public interface Quad {
+    OpType op();
+
+    Operand arg1();
+
+    Operand arg2();
+
+    Operand result();
+
+    static Operand defOf(OpType op, Operand arg1, Operand result) {
+        return switch (op) {
+            case ASSIGN, LOAD, CALL, GET_INT -> result;
+            case FUNC_PARAM -> arg1;
+            default -> op.canCalculate() ? result : Operand.NONE;
+        };
+    }
+
+    default Operand getDef() {
+        return defOf(op(), arg1(), result());
+    }
+
+    default List<Operand> getUses() {
+        boolean first = usesArg1() && arg1().isVar();
+        boolean second = usesArg2() && arg2().isVar() && arg2() != arg1();
+        if (first && second) {
+            return List.of(arg1(), arg2());
+        } else if (first) {
+            return List.of(arg1());
+        } else if (second) {
+            return List.of(arg2());
+        }
+        return List.of();
+    }
+
+    default Quadruple rename(UnaryOperator<Operand> use, UnaryOperator<Operand> def) {
+        Operand newArg1 = usesArg1() ? use.apply(arg1()) : arg1();
+        Operand newArg2 = usesArg2() ? use.apply(arg2()) : arg2();
+        Operand newResult = result();
+        if (op() == OpType.FUNC_PARAM) {
+            newArg1 = def.apply(arg1());
+        } else if (!getDef().isNone()) {
+            newResult = def.apply(result());
+        }
+        return new Quadruple(op(), newArg1, newArg2, newResult);
+    }
+
+    default boolean matches(Quad other) {
+        return op() == other.op() && arg1() == other.arg1() && arg2() == other.arg2() && result() == other.result();
+    }
+
+    default Quadruple toQuadruple() {
+        return new Quadruple(op(), arg1(), arg2(), result());
+    }
+
+    default String format() {
+        return "(" + op() + "," + arg1() + "," + arg2() + "," + result() + ")";
+    }
+
+    private boolean usesArg1() {
+        return switch (op()) {
+            case ASSIGN, PARAM, PRINTF, RET, STORE, BEQ -> true;
+            default -> op().canCalculate();
+        };
+    }
+
+    private boolean usesArg2() {
+        return switch (op()) {
+            case LOAD, STORE, BEQ -> true;
+            default -> op().canCalculate();
+        };
+    }
+}
@@ -1,16 +1,22 @@
 package backend.data;
 
-public record Quadruple(String op, String arg1, String arg2, String result) {
-    public Quadruple(String op, String arg1, String arg2, String result) {
+import backend.config.*;
+
+public record Quadruple(OpType op, Operand arg1, Operand arg2, Operand result) implements Quad {
+    public Quadruple(OpType op, Operand arg1, Operand arg2, Operand result) {
         this.op = op;
-        this.arg1 = arg1 == null ? "_" : arg1;
-        this.arg2 = arg2 == null ? "_" : arg2;
-        this.result = result == null ? "_" : result;
+        this.arg1 = arg1 == null ? Operand.NONE : arg1;
+        this.arg2 = arg2 == null ? Operand.NONE : arg2;
+        this.result = result == null ? Operand.NONE : result;
+    }
+
+    @Override
+    public Quadruple toQuadruple() {
+        return this;
     }
 
     @Override
     public String toString() {
-        return "(" + op + "," + arg1 + "," + arg2 + "," + result + ")";
+        return format();
     }
 }
-
@@ -1,5 +1,6 @@
 package backend.ir;
 
+import backend.config.*;
 import backend.data.*;
 import frontend.config.*;
 import frontend.data.*;
@@ -14,9 +15,11 @@ public class IrGenerator {
     private final SymbolTree symbolTree;
     private final IrList instrList = new IrList();
     private final IrList globalList = new IrList();
-    private final Stack<String> breakLabels = new Stack<>();
-    private final Stack<String> continueLabels = new Stack<>();
-    private final HashMap<String, String> stringPool = new HashMap<>();
+    private final Stack<Operand> breakLabels = new Stack<>();
+    private final Stack<Operand> continueLabels = new Stack<>();
+    private final HashMap<String, Operand> stringPool = new HashMap<>();
+    private final HashSet<String> params = new HashSet<>();
+    private SymbolMap paramScope;
     private int tempCounter = 1;
     private int labelCounter = 1;
     private int stringCounter = 1;
@@ -29,30 +32,37 @@ public class IrGenerator {
         this.symbolTree = symbolTree;
     }
 
-    private static String getIrName(String idenfr, int useLine, SymbolTree node) {
-        return "ir_idenfr_" + idenfr + "_" + node.findSymbolRecursive(idenfr, useLine).getScopeId();
+    private Operand getIrName(String idenfr, int useLine, SymbolTree node) {
+        SymbolMap scope = node.findSymbolRecursive(idenfr, useLine);
+        String name = "ir_idenfr_" + idenfr + "_" + scope.getScopeId();
+        SymbolType type = scope.getSymbol(idenfr).getType();
+        if (scope.getScopeId() == 1 || type == SymbolType.StaticInt || type == SymbolType.StaticIntArray) {
+            return Operand.of(OperandType.Global, name);
+        } else if (scope == paramScope && params.contains(idenfr)) {
+            return Operand.of(OperandType.Param, name);
+        }
+        return Operand.of(OperandType.Local, name);
     }
 
-    private String newTemp() {
-        String temp = "ir_temp_" + (tempCounter++);
-        addQuad("alloc", temp, null, "int");
+    private Operand newTemp() {
+        Operand temp = Operand.of(OperandType.Temp, "ir_temp_" + (tempCounter++));
+        addQuad(OpType.ALLOC, temp, null, Operand.INT);
         return temp;
     }
 
-    private String newLabel() {
-        return "ir_label_" + (labelCounter++);
+    private Operand newLabel() {
+        return Operand.of(OperandType.Label, "ir_label_" + (labelCounter++));
     }
 
-    private String newString() {
-        return "ir_string_" + (stringCounter++);
+    private Operand newString() {
+        return Operand.of(OperandType.Literal, "ir_string_" + (stringCounter++));
     }
 
-    private void addQuad(String op, String arg1, String arg2, String result) {
-        Quadruple quad = new Quadruple(op, arg1, arg2, result);
+    private void addQuad(OpType op, Operand arg1, Operand arg2, Operand result) {
         if (!global && !isStatic) {
-            instrList.add(quad);
+            instrList.add(op, arg1, arg2, result);
         } else {
-            globalList.add(quad);
+            globalList.add(op, arg1, arg2, result);
         }
     }
 
@@ -62,7 +72,7 @@ public class IrGenerator {
             generateDecl(decl, symbolTree);
         }
         global = false;
-        addQuad("call", "main", "0", null);
+        addQuad(OpType.CALL, Operand.of(OperandType.Function, "main"), Operand.of(0), null);
         for (FuncDef funcDef : compUnit.getFuncDef()) {
             generateFuncDef(funcDef);
         }
@@ -89,37 +99,36 @@ public class IrGenerator {
 
     // ConstDef → <IDENFR> [ <LBRACK> ConstExp <RBRACK> ] <ASSIGN> ConstInitVal
     private void generateConstDef(ConstDef constDef, SymbolTree node) {
-        String name = generateIndex(constDef, node);
+        Operand name = generateIndex(constDef, node);
         generateConstInitVal(constDef.getConstInitVal(), name, node);
         isStatic = false;
     }
 
-    private String generateIndex(Object defT, SymbolTree node) {
+    private Operand generateIndex(Object defT, SymbolTree node) {
         Def def = (Def) defT;
         String idenfr = def.getIdenfr();
-        String name = getIrName(idenfr, def.getLineIndex(), node);
+        Operand name = getIrName(idenfr, def.getLineIndex(), node);
         SymbolType type = node.findSymbolRecursive(idenfr, def.getLineIndex()).getSymbol(idenfr).getType();
         isStatic = (type == SymbolType.StaticInt || type == SymbolType.StaticIntArray);
         if (def.getConstExp() != null) {
             int size = Visitor.evaConstExp(def.getConstExp(), node);
-            addQuad("array_alloc", name, String.valueOf(size), isStatic ? "static" : "int");
+            addQuad(OpType.ARRAY_ALLOC, name, Operand.of(size), isStatic ? Operand.STATIC : Operand.INT);
         } else {
-            addQuad("alloc", name, null, isStatic ? "static" : "int");
+            addQuad(OpType.ALLOC, name, null, isStatic ? Operand.STATIC : Operand.INT);
         }
         return name;
     }
 
     // ConstInitVal → ConstExp | <LBRACE> [ ConstExp { <COMMA> ConstExp } ] <RBRACE>
-    private void generateConstInitVal(ConstInitVal constInitVal, String name, SymbolTree node) {
+    private void generateConstInitVal(ConstInitVal constInitVal, Operand name, SymbolTree node) {
         if (constInitVal.getConstInitValType() == ConstInitVal.ConstInitValType.ConstExp) {
             int value = Visitor.evaConstExp(constInitVal.getConstExp(), node);
-            addQuad("assign", String.valueOf(value), null, name);
+            addQuad(OpType.ASSIGN, Operand.of(value), null, name);
         } else {
             ArrayList<ConstExp> constExpArr = constInitVal.getConstExpArr();
             for (int i = 0; i < constExpArr.size(); i++) {
                 int value = Visitor.evaConstExp(constExpArr.get(i), node);
-                String index = String.valueOf(i);
-                addQuad("store", String.valueOf(value), index, name);
+                addQuad(OpType.STORE, Operand.of(value), Operand.of(i), name);
             }
         }
     }
@@ -133,7 +142,7 @@ public class IrGenerator {
 
     // VarDef → <IDENFR> [ <LBRACK> ConstExp <RBRACK> ] | <IDENFR> [ <LBRACK> ConstExp <RBRACK> ] <ASSIGN> InitVal
     private void generateVarDef(VarDef varDef, SymbolTree node) {
-        String name = generateIndex(varDef, node);
+        Operand name = generateIndex(varDef, node);
         int size = 0;
         if (varDef.getConstExp() != null) {
             size = Visitor.evaConstExp(varDef.getConstExp(), node);
@@ -145,21 +154,19 @@ public class IrGenerator {
     }
 
     // InitVal → Exp | <LBRACE> [ Exp { <COMMA> Exp } ] <RBRACE>
-    private void generateInitVal(InitVal initVal, String name, int size, SymbolTree node) {
+    private void generateInitVal(InitVal initVal, Operand name, int size, SymbolTree node) {
         if (initVal.getInitValType() == InitVal.InitValType.Exp) {
-            String value = generateExp(initVal.getExp(), node);
-            addQuad("assign", value, null, name);
+            Operand value = generateExp(initVal.getExp(), node);
+            addQuad(OpType.ASSIGN, value, null, name);
         } else {
             ArrayList<Exp> expArr = initVal.getExpArr();
             for (int i = 0; i < expArr.size(); i++) {
-                String value = generateExp(expArr.get(i), node);
-                String index = String.valueOf(i);
-                addQuad("store", value, index, name);
+                Operand value = generateExp(expArr.get(i), node);
+                addQuad(OpType.STORE, value, Operand.of(i), name);
             }
             if (!global && !isStatic) {
                 for (int i = expArr.size(); i < size; i++) {
-                    String index = String.valueOf(i);
-                    addQuad("store", "0", index, name);
+                    addQuad(OpType.STORE, Operand.of(0), Operand.of(i), name);
                 }
             }
         }
@@ -167,38 +174,39 @@ public class IrGenerator {
 
     // FuncDef → FuncType <IDENFR> <LPARENT> [FuncFParams] <RPARENT> Block
     private void generateFuncDef(FuncDef funcDef) {
-        String funcName = funcDef.getIdenfr();
-        String type = generateFuncType(funcDef.getFuncType());
-        addQuad("func_begin", funcName, type, null);
+        Operand funcName = Operand.of(OperandType.Function, funcDef.getIdenfr());
+        Operand type = generateFuncType(funcDef.getFuncType());
+        addQuad(OpType.FUNC_BEGIN, funcName, type, null);
         scopeIndex++;
         SymbolTree funcNode = symbolTree.getScope(scopeIndex);
+        paramScope = funcNode.getSymbolMap();
+        params.clear();
         if (funcDef.getFuncFParams() != null) {
             generateFuncFParams(funcDef.getFuncFParams(), funcNode);
         }
         for (BlockItem blockItem : funcDef.getBlock().getBlockItem()) {
             generateBlockItem(blockItem, funcNode);
         }
-        if (type.equals("void")) {
-            Quadruple lastQuad = instrList.get(instrList.size() - 1);
-            if (lastQuad != null && !lastQuad.op().equals("ret")) {
-                addQuad("ret", null, null, null);
+        if (type == Operand.VOID) {
+            if (instrList.getOp(instrList.size() - 1) != OpType.RET) {
+                addQuad(OpType.RET, null, null, null);
             }
         }
-        addQuad("func_end", funcName, type, null);
+        addQuad(OpType.FUNC_END, funcName, type, null);
     }
 
     // MainFuncDef → <INTTK> <MAINTK> <LPARENT> <RPARENT> Block
     private void generateMainFuncDef(MainFuncDef mainFuncDef) {
-        addQuad("func_begin", "main", null, null);
+        addQuad(OpType.FUNC_BEGIN, Operand.of(OperandType.Function, "main"), null, null);
         scopeIndex++;
         SymbolTree mainNode = symbolTree.getScope(scopeIndex);
         generateBlock(mainFuncDef.block(), mainNode);
-        addQuad("func_end", null, null, null);
+        addQuad(OpType.FUNC_END, null, null, null);
     }
 
     // FuncType → <VOIDTK> | <INTTK>
-    private String generateFuncType(FuncType funcType) {
-        return funcType.funcTypeType() == FuncType.FuncTypeType.Void ? "void" : "int";
+    private Operand generateFuncType(FuncType funcType) {
+        return funcType.funcTypeType() == FuncType.FuncTypeType.Void ? Operand.VOID : Operand.INT;
     }
 
     // FuncFParams → FuncFParam { <COMMA> FuncFParam }
@@ -211,9 +219,10 @@ public class IrGenerator {
 
     // FuncFParam → BType <IDENFR> [<LBRACK> <RBRACK>]
     private void generateFuncFParam(FuncFParam funcFParam, int index, SymbolTree node) {
-        String paramName = getIrName(funcFParam.getIdenfr(), funcFParam.getLineIndex(), node);
-        String type = funcFParam.getFuncFParamType() == FuncFParam.FuncFParamType.Int ? "int" : "array";
-        addQuad("func_param", paramName, String.valueOf(index), type);
+        params.add(funcFParam.getIdenfr());
+        Operand paramName = getIrName(funcFParam.getIdenfr(), funcFParam.getLineIndex(), node);
+        Operand type = funcFParam.getFuncFParamType() == FuncFParam.FuncFParamType.Int ? Operand.INT : Operand.ARRAY;
+        addQuad(OpType.FUNC_PARAM, paramName, Operand.of(index), type);
     }
 
     // Block → <LBRACE> { BlockItem } <RBRACE>
@@ -233,17 +242,17 @@ public class IrGenerator {
     }
 
     private void generateWhileStmt(Stmt stmt, SymbolTree node) {
-        String labelCond = newLabel();
-        String labelBody = newLabel();
-        String labelEnd = newLabel();
+        Operand labelCond = newLabel();
+        Operand labelBody = newLabel();
+        Operand labelEnd = newLabel();
         breakLabels.push(labelEnd);
         continueLabels.push(labelCond);
-        addQuad("label", null, null, labelCond);
+        addQuad(OpType.LABEL, null, null, labelCond);
         generateCond(stmt.getCondWhile(), labelBody, labelEnd, node);
-        addQuad("label", null, null, labelBody);
+        addQuad(OpType.LABEL, null, null, labelBody);
         generateStmt(stmt.getStmtWhile(), node);
-        addQuad("j", null, null, labelCond);
-        addQuad("label", null, null, labelEnd);
+        addQuad(OpType.J, null, null, labelCond);
+        addQuad(OpType.LABEL, null, null, labelEnd);
         breakLabels.pop();
         continueLabels.pop();
     }
@@ -276,20 +285,20 @@ public class IrGenerator {
             case While -> generateWhileStmt(stmt, node);
             case Break -> {
                 if (!breakLabels.isEmpty()) {
-                    addQuad("j", null, null, breakLabels.peek());
+                    addQuad(OpType.J, null, null, breakLabels.peek());
                 }
             }
             case Continue -> {
                 if (!continueLabels.isEmpty()) {
-                    addQuad("j", null, null, continueLabels.peek());
+                    addQuad(OpType.J, null, null, continueLabels.peek());
                 }
             }
             case Return -> {
                 if (stmt.getExpReturn() != null) {
-                    String value = generateExp(stmt.getExpReturn(), node);
-                    addQuad("ret", value, null, null);
+                    Operand value = generateExp(stmt.getExpReturn(), node);
+                    addQuad(OpType.RET, value, null, null);
                 } else {
-                    addQuad("ret", null, null, null);
+                    addQuad(OpType.RET, null, null, null);
                 }
             }
             case Print -> generatePrintfStmt(stmt, node);
@@ -299,61 +308,61 @@ public class IrGenerator {
     // LVal <ASSIGN> Exp <SEMICN>
     private void generateLvalStmt(Stmt stmt, SymbolTree node) {
         LVal lVal = stmt.getlVal();
-        String value = generateExp(stmt.getExpLVal(), node);
+        Operand value = generateExp(stmt.getExpLVal(), node);
         if (lVal.getExp() == null) {
-            addQuad("assign", value, null, getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node));
+            addQuad(OpType.ASSIGN, value, null, getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node));
         } else {
-            String index = generateExp(lVal.getExp(), node);
-            addQuad("store", value, index, getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node));
+            Operand index = generateExp(lVal.getExp(), node);
+            addQuad(OpType.STORE, value, index, getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node));
         }
     }
 
     // <IFTK> <LPARENT> Cond <RPARENT> Stmt [ <ELSETK> Stmt ]
     private void generateIfStmt(Stmt stmt, SymbolTree node) {
         if (stmt.getStmtElse() == null) {
-            String labelThen = newLabel();
-            String labelEnd = newLabel();
+            Operand labelThen = newLabel();
+            Operand labelEnd = newLabel();
             generateCond(stmt.getCondIf(), labelThen, labelEnd, node);
-            addQuad("label", null, null, labelThen);
+            addQuad(OpType.LABEL, null, null, labelThen);
             generateStmt(stmt.getStmtIf(), node);
-            addQuad("label", null, null, labelEnd);
+            addQuad(OpType.LABEL, null, null, labelEnd);
         } else {
-            String labelThen = newLabel();
-            String labelElse = newLabel();
-            String labelEnd = newLabel();
+            Operand labelThen = newLabel();
+            Operand labelElse = newLabel();
+            Operand labelEnd = newLabel();
             generateCond(stmt.getCondIf(), labelThen, labelElse, node);
-            addQuad("label", null, null, labelThen);
+            addQuad(OpType.LABEL, null, null, labelThen);
             generateStmt(stmt.getStmtIf(), node);
-            addQuad("j", null, null, labelEnd);
-            addQuad("label", null, null, labelElse);
+            addQuad(OpType.J, null, null, labelEnd);
+            addQuad(OpType.LABEL, null, null, labelElse);
             generateStmt(stmt.getStmtElse(), node);
-            addQuad("label", null, null, labelEnd);
+            addQuad(OpType.LABEL, null, null, labelEnd);
         }
     }
 
     // <FORTK> <LPARENT> [ForStmt] <SEMICN> [Cond] <SEMICN> [ForStmt] <RPARENT> Stmt
     private void generateForStmtPart(Stmt stmt, SymbolTree node) {
-        String labelCond = newLabel();
-        String labelBody = newLabel();
-        String labelUpdate = newLabel();
-        String labelEnd = newLabel();
+        Operand labelCond = newLabel();
+        Operand labelBody = newLabel();
+        Operand labelUpdate = newLabel();
+        Operand labelEnd = newLabel();
         breakLabels.push(labelEnd);
         continueLabels.push(labelUpdate);
         if (stmt.getForStmtLeft() != null) {
             generateForStmt(stmt.getForStmtLeft(), node);
         }
-        addQuad("label", null, null, labelCond);
+        addQuad(OpType.LABEL, null, null, labelCond);
         if (stmt.getCondFor() != null) {
             generateCond(stmt.getCondFor(), labelBody, labelEnd, node);
         }
-        addQuad("label", null, null, labelBody);
+        addQuad(OpType.LABEL, null, null, labelBody);
         generateStmt(stmt.getStmtFor(), node);
-        addQuad("label", null, null, labelUpdate);
+        addQuad(OpType.LABEL, null, null, labelUpdate);
         if (stmt.getForStmtRight() != null) {
             generateForStmt(stmt.getForStmtRight(), node);
         }
-        addQuad("j", null, null, labelCond);
-        addQuad("label", null, null, labelEnd);
+        addQuad(OpType.J, null, null, labelCond);
+        addQuad(OpType.LABEL, null, null, labelEnd);
         breakLabels.pop();
         continueLabels.pop();
     }
@@ -363,12 +372,12 @@ public class IrGenerator {
         for (int i = 0; i < forStmt.getlVal().size(); i++) {
             LVal lVal = forStmt.getlVal().get(i);
             Exp exp = forStmt.getExp().get(i);
-            String value = generateExp(exp, node);
+            Operand value = generateExp(exp, node);
             if (lVal.getExp() == null) {
-                addQuad("assign", value, null, getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node));
+                addQuad(OpType.ASSIGN, value, null, getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node));
             } else {
-                String index = generateExp(lVal.getExp(), node);
-                addQuad("store", value, index, getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node));
+                Operand index = generateExp(lVal.getExp(), node);
+                addQuad(OpType.STORE, value, index, getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node));
             }
         }
     }
@@ -378,47 +387,47 @@ public class IrGenerator {
         String format = stmt.getStrCon();
         String[] parts = format.split("((?<=%d)|(?=%d))");
         ArrayList<Exp> expList = stmt.getExpPrint();
-        ArrayList<String> values = new ArrayList<>();
+        ArrayList<Operand> values = new ArrayList<>();
         for (Exp exp : expList) {
             values.add(generateExp(exp, node));
         }
         for (int i = 0, j = 0; i < parts.length; i++) {
             String part = parts[i];
             if (part.equals("%d")) {
-                addQuad("printf", values.get(j), null, null);
+                addQuad(OpType.PRINTF, values.get(j), null, null);
                 j++;
             } else if (!part.isEmpty()) {
-                String str = stringPool.containsKey(part) ? stringPool.get(part) : newString();
+                Operand str = stringPool.containsKey(part) ? stringPool.get(part) : newString();
                 stringPool.put(part, str);
-                addQuad("print", part, null, str);
+                addQuad(OpType.PRINT, Operand.of(OperandType.Text, part), null, str);
             }
         }
     }
 
     // Exp → AddExp
-    private String generateExp(Exp exp, SymbolTree node) {
+    private Operand generateExp(Exp exp, SymbolTree node) {
         return generateAddExp(exp.addExp(), node);
     }
 
     // Cond → LOrExp
-    private void generateCond(Cond cond, String labelTrue, String labelFalse, SymbolTree node) {
+    private void generateCond(Cond cond, Operand labelTrue, Operand labelFalse, SymbolTree node) {
         generateLOrExp(cond.lOrExp(), labelTrue, labelFalse, node);
     }
 
     // LVal → <IDENFR> [<LBRACK> Exp <RBRACK>]
-    private String generateLVal(LVal lVal, SymbolTree node) {
+    private Operand generateLVal(LVal lVal, SymbolTree node) {
         if (lVal.getExp() == null) {
             return getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node);
         } else {
-            String index = generateExp(lVal.getExp(), node);
-            String temp = newTemp();
-            addQuad("load", getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node), index, temp);
+            Operand index = generateExp(lVal.getExp(), node);
+            Operand temp = newTemp();
+            addQuad(OpType.LOAD, getIrName(lVal.getIdenfr(), lVal.getLineIndex(), node), index, temp);
             return temp;
         }
     }
 
     // PrimaryExp → <LPARENT> Exp <RPARENT> | LVal | Number
-    private String generatePrimaryExp(PrimaryExp primaryExp, SymbolTree node) {
+    private Operand generatePrimaryExp(PrimaryExp primaryExp, SymbolTree node) {
         return switch (primaryExp.getPrimaryExpType()) {
             case Exp -> generateExp(primaryExp.getExp(), node);
             case LVal -> generateLVal(primaryExp.getLval(), node);
@@ -427,12 +436,12 @@ public class IrGenerator {
     }
 
     // Number → <INTCON>
-    private String generateNumber(Number number) {
-        return number.number();
+    private Operand generateNumber(Number number) {
+        return Operand.of((int) Long.parseLong(number.number()));
     }
 
     // UnaryExp → PrimaryExp | <IDENFR> <LPARENT> [FuncRParams] <RPARENT> | UnaryOp UnaryExp
-    private String generateUnaryExp(UnaryExp unaryExp, SymbolTree node) {
+    private Operand generateUnaryExp(UnaryExp unaryExp, SymbolTree node) {
         return switch (unaryExp.getUnaryExpType()) {
             case PrimaryExp -> generatePrimaryExp(unaryExp.getPrimaryExp(), node);
             case FuncRParams -> generateFuncCall(unaryExp, node);
@@ -441,63 +450,63 @@ public class IrGenerator {
     }
 
     // <IDENFR> <LPARENT> [FuncRParams] <RPARENT>
-    private String generateFuncCall(UnaryExp unaryExp, SymbolTree node) {
+    private Operand generateFuncCall(UnaryExp unaryExp, SymbolTree node) {
         String funcName = unaryExp.getIdenfr();
         if (funcName.equals("getint")) {
-            String result = newTemp();
-            addQuad("get_int", null, null, result);
+            Operand result = newTemp();
+            addQuad(OpType.GET_INT, null, null, result);
             return result;
         }
-        String result = newTemp();
+        Operand result = newTemp();
         int paramCount = 0;
         if (unaryExp.getFuncRParams() != null) {
             generateFuncRParams(unaryExp.getFuncRParams(), node);
             paramCount = unaryExp.getFuncRParams().getExp().size();
         }
-        addQuad("call", funcName, String.valueOf(paramCount), result);
+        addQuad(OpType.CALL, Operand.of(OperandType.Function, funcName), Operand.of(paramCount), result);
         return result;
     }
 
     // UnaryOp → <PLUS> | <MINU> | <NOT>
-    private String generateUnaryOp(UnaryExp unaryExp, SymbolTree node) {
-        String operand = generateUnaryExp(unaryExp.getUnaryExp(), node);
+    private Operand generateUnaryOp(UnaryExp unaryExp, SymbolTree node) {
+        Operand operand = generateUnaryExp(unaryExp.getUnaryExp(), node);
         UnaryOp.UnaryOpType opType = unaryExp.getUnaryOp().unaryOpType();
-        String op = switch (opType) {
+        OpType op = switch (opType) {
             case Plus -> null;
-            case Minu -> "subu";
-            case Not -> "seq";
+            case Minu -> OpType.SUBU;
+            case Not -> OpType.SEQ;
         };
         if (op == null) {
             return operand;
         }
-        String temp = newTemp();
-        addQuad(op, "0", operand, temp);
+        Operand temp = newTemp();
+        addQuad(op, Operand.of(0), operand, temp);
         return temp;
     }
 
     // FuncRParams → Exp { <COMMA> Exp }
     private void generateFuncRParams(FuncRParams funcRParams, SymbolTree node) {
         for (Exp exp : funcRParams.getExp()) {
-            String value = generateExp(exp, node);
+            Operand value = generateExp(exp, node);
             SymbolType symbolType = Visitor.getExpType(exp, node);
-            String type = (symbolType == SymbolType.IntFunc || symbolType == SymbolType.Int || symbolType == SymbolType.StaticInt || symbolType == SymbolType.ConstInt) ? "int" : "array";
-            addQuad("param", value, type, null);
+            Operand type = (symbolType == SymbolType.IntFunc || symbolType == SymbolType.Int || symbolType == SymbolType.StaticInt || symbolType == SymbolType.ConstInt) ? Operand.INT : Operand.ARRAY;
+            addQuad(OpType.PARAM, value, type, null);
         }
     }
 
     // MulExp → UnaryExp { ( <MULT> | <DIV> | <MOD> ) UnaryExp }
-    private String generateMulExp(MulExp mulExp, SymbolTree node) {
+    private Operand generateMulExp(MulExp mulExp, SymbolTree node) {
         ArrayList<UnaryExp> unaryExps = mulExp.getUnaryExp();
         ArrayList<MulExp.MulExpType> ops = mulExp.getMulExpType();
-        String result = generateUnaryExp(unaryExps.get(0), node);
+        Operand result = generateUnaryExp(unaryExps.get(0), node);
         for (int i = 1; i < unaryExps.size(); i++) {
-            String right = generateUnaryExp(unaryExps.get(i), node);
-            String op = switch (ops.get(i - 1)) {
-                case Mult -> "mulu";
-                case Div -> "div";
-                case Mod -> "mod";
+            Operand right = generateUnaryExp(unaryExps.get(i), node);
+            OpType op = switch (ops.get(i - 1)) {
+                case Mult -> OpType.MULU;
+                case Div -> OpType.DIV;
+                case Mod -> OpType.MOD;
             };
-            String temp = newTemp();
+            Operand temp = newTemp();
             addQuad(op, result, right, temp);
             result = temp;
         }
@@ -505,14 +514,14 @@ public class IrGenerator {
     }
 
     // AddExp → MulExp { ( <PLUS> | <MINU> ) MulExp }
-    private String generateAddExp(AddExp addExp, SymbolTree node) {
+    private Operand generateAddExp(AddExp addExp, SymbolTree node) {
         ArrayList<MulExp> mulExps = addExp.getMulExp();
         ArrayList<AddExp.AddExpType> ops = addExp.getAddExpType();
-        String result = generateMulExp(mulExps.get(0), node);
+        Operand result = generateMulExp(mulExps.get(0), node);
         for (int i = 1; i < mulExps.size(); i++) {
-            String right = generateMulExp(mulExps.get(i), node);
-            String op = ops.get(i - 1) == AddExp.AddExpType.Plus ? "addu" : "subu";
-            String temp = newTemp();
+            Operand right = generateMulExp(mulExps.get(i), node);
+            OpType op = ops.get(i - 1) == AddExp.AddExpType.Plus ? OpType.ADDU : OpType.SUBU;
+            Operand temp = newTemp();
             addQuad(op, result, right, temp);
             result = temp;
         }
@@ -520,19 +529,19 @@ public class IrGenerator {
     }
 
     // RelExp → AddExp { ( <LSS> | <GRE> | <LEQ> | <GEQ> ) AddExp }
-    private String generateRelExp(RelExp relExp, SymbolTree node) {
+    private Operand generateRelExp(RelExp relExp, SymbolTree node) {
         ArrayList<AddExp> addExps = relExp.getAddExp();
         ArrayList<RelExp.RelExpType> ops = relExp.getRelExpType();
-        String result = generateAddExp(addExps.get(0), node);
+        Operand result = generateAddExp(addExps.get(0), node);
         for (int i = 1; i < addExps.size(); i++) {
-            String right = generateAddExp(addExps.get(i), node);
-            String op = switch (ops.get(i - 1)) {
-                case Lss -> "slt";
-                case Gre -> "sgt";
-                case Leq -> "sle";
-                case Geq -> "sge";
+            Operand right = generateAddExp(addExps.get(i), node);
+            OpType op = switch (ops.get(i - 1)) {
+                case Lss -> OpType.SLT;
+                case Gre -> OpType.SGT;
+                case Leq -> OpType.SLE;
+                case Geq -> OpType.SGE;
             };
-            String temp = newTemp();
+            Operand temp = newTemp();
             addQuad(op, result, right, temp);
             result = temp;
         }
@@ -540,14 +549,14 @@ public class IrGenerator {
     }
 
     // EqExp → RelExp { ( <EQL> | <NEQ> ) RelExp }
-    private String generateEqExp(EqExp eqExp, SymbolTree node) {
+    private Operand generateEqExp(EqExp eqExp, SymbolTree node) {
         ArrayList<RelExp> relExps = eqExp.getRelExp();
         ArrayList<EqExp.EqExpType> ops = eqExp.getEqExpType();
-        String result = generateRelExp(relExps.get(0), node);
+        Operand result = generateRelExp(relExps.get(0), node);
         for (int i = 1; i < relExps.size(); i++) {
-            String right = generateRelExp(relExps.get(i), node);
-            String op = ops.get(i - 1) == EqExp.EqExpType.Eql ? "seq" : "sne";
-            String temp = newTemp();
+            Operand right = generateRelExp(relExps.get(i), node);
+            OpType op = ops.get(i - 1) == EqExp.EqExpType.Eql ? OpType.SEQ : OpType.SNE;
+            Operand temp = newTemp();
             addQuad(op, result, right, temp);
             result = temp;
         }
@@ -555,23 +564,23 @@ public class IrGenerator {
     }
 
     // LAndExp → EqExp { <AND> EqExp }
-    private void generateLAndExp(LAndExp lAndExp, String labelTrue, String labelFalse, SymbolTree node) {
+    private void generateLAndExp(LAndExp lAndExp, Operand labelTrue, Operand labelFalse, SymbolTree node) {
         ArrayList<EqExp> eqExps = lAndExp.getEqExp();
         for (EqExp eqExp : eqExps) {
-            String result = generateEqExp(eqExp, node);
-            addQuad("beq", result, "0", labelFalse);
+            Operand result = generateEqExp(eqExp, node);
+            addQuad(OpType.BEQ, result, Operand.of(0), labelFalse);
         }
-        addQuad("j", null, null, labelTrue);
+        addQuad(OpType.J, null, null, labelTrue);
     }
 
     // LOrExp → LAndExp { <OR> LAndExp }
-    private void generateLOrExp(LOrExp lOrExp, String labelTrue, String labelFalse, SymbolTree node) {
+    private void generateLOrExp(LOrExp lOrExp, Operand labelTrue, Operand labelFalse, SymbolTree node) {
         ArrayList<LAndExp> lAndExps = lOrExp.getlAndExp();
         for (int i = 0; i < lAndExps.size() - 1; i++) {
             LAndExp lAndExp = lAndExps.get(i);
-            String labelNext = newLabel();
+            Operand labelNext = newLabel();
             generateLAndExp(lAndExp, labelTrue, labelNext, node);
-            addQuad("label", null, null, labelNext);
+            addQuad(OpType.LABEL, null, null, labelNext);
         }
         if (!lAndExps.isEmpty()) {
             generateLAndExp(lAndExps.get(lAndExps.size() - 1), labelTrue, labelFalse, node);
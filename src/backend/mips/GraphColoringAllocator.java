@@ -0,0 +1,189 @@
+package backend.mips;
+
+import backend.config.*;
+import backend.data.*;
+import optimize.*;
+
+import java.util.*;
+
+public class GraphColoringAllocator extends RegisterAllocator {
+    private final LinkedHashMap<Operand, LinkedHashSet<Operand>> graph = new LinkedHashMap<>();
+    private final HashMap<Operand, Double> costs = new HashMap<>();
+    private final HashSet<Operand> crossesCall = new HashSet<>();
+    private final ArrayList<Operand[]> moves = new ArrayList<>();
+    private final HashMap<Operand, Operand> alias = new HashMap<>();
+
+    public GraphColoringAllocator(IrList irList, FuncStack funcStack) {
+        super(irList, funcStack);
+    }
+
+    @Override
+    public void allocate() {
+        if (candidates.isEmpty()) return;
+        build();
+        coalesce();
+        select(simplify());
+        for (Operand var : alias.keySet()) {
+            String reg = funcStack.getRegister(find(var));
+            if (reg != null) {
+                funcStack.putRegister(var, reg);
+            }
+        }
+    }
+
+    private void build() {
+        Func func = new Func(irList);
+        ArrayList<Block> blocks = func.getBlockList();
+        ArrayList<Operand> variables = new ArrayList<>(candidates);
+        HashMap<Operand, Integer> index = new HashMap<>();
+        for (Operand var : variables) {
+            index.put(var, index.size());
+        }
+        Dataflow liveness = computeLiveness(blocks, index);
+        for (Operand var : candidates) {
+            graph.put(var, new LinkedHashSet<>());
+        }
+        for (Block block : blocks) {
+            double weight = Math.pow(10, Math.min(func.getLoopDepth(block), 8));
+            HashSet<Operand> live = new HashSet<>();
+            BitVector out = liveness.getOut(block);
+            for (int i = out.nextSetBit(0); i >= 0; i = out.nextSetBit(i + 1)) {
+                live.add(variables.get(i));
+            }
+            Iterator<Quad> it = block.getIrList().descendingIterator();
+            while (it.hasNext()) {
+                Quad quad = it.next();
+                Operand def = getDef(quad);
+                List<Operand> uses = getUses(quad);
+                if (quad.op() == OpType.CALL) {
+                    for (Operand var : live) {
+                        if (var != def) crossesCall.add(var);
+                    }
+                }
+                if (def != null) {
+                    costs.merge(def, weight, Double::sum);
+                    Operand source = quad.op() == OpType.ASSIGN ? quad.arg1() : null;
+                    for (Operand var : live) {
+                        if (var != def && var != source) addEdge(def, var);
+                    }
+                    live.remove(def);
+                    if (source != null && candidates.contains(source)) {
+                        moves.add(new Operand[]{def, source});
+                    }
+                }
+                for (Operand use : uses) {
+                    costs.merge(use, weight, Double::sum);
+                    live.add(use);
+                }
+            }
+        }
+        graph.keySet().retainAll(costs.keySet());
+        for (LinkedHashSet<Operand> neighbors : graph.values()) {
+            neighbors.retainAll(costs.keySet());
+        }
+    }
+
+    private void addEdge(Operand a, Operand b) {
+        graph.get(a).add(b);
+        graph.get(b).add(a);
+    }
+
+    private int colors(Operand var) {
+        return crossesCall.contains(var) ? saved.length : temporaries.length + saved.length;
+    }
+
+    private Operand find(Operand var) {
+        Operand root = var;
+        while (alias.containsKey(root)) {
+            root = alias.get(root);
+        }
+        return root;
+    }
+
+    private void coalesce() {
+        for (Operand[] move : moves) {
+            Operand a = find(move[0]);
+            Operand b = find(move[1]);
+            if (a == b || !graph.containsKey(a) || !graph.containsKey(b) || graph.get(a).contains(b)) continue;
+            LinkedHashSet<Operand> neighbors = new LinkedHashSet<>(graph.get(a));
+            neighbors.addAll(graph.get(b));
+            int k = crossesCall.contains(a) || crossesCall.contains(b) ? saved.length : temporaries.length + saved.length;
+            int significant = 0;
+            for (Operand neighbor : neighbors) {
+                if (graph.get(neighbor).size() >= k) significant++;
+            }
+            if (significant >= k) continue;
+            for (Operand neighbor : graph.remove(b)) {
+                graph.get(neighbor).remove(b);
+                addEdge(a, neighbor);
+            }
+            alias.put(b, a);
+            costs.merge(a, costs.get(b), Double::sum);
+            if (crossesCall.contains(b)) crossesCall.add(a);
+        }
+    }
+
+    private ArrayList<Operand> simplify() {
+        ArrayList<Operand> stack = new ArrayList<>();
+        HashMap<Operand, Integer> degrees = new HashMap<>();
+        LinkedHashSet<Operand> remaining = new LinkedHashSet<>(graph.keySet());
+        for (Operand var : remaining) {
+            degrees.put(var, graph.get(var).size());
+        }
+        while (!remaining.isEmpty()) {
+            Operand pick = null;
+            for (Operand var : remaining) {
+                if (degrees.get(var) < colors(var)) {
+                    pick = var;
+                    break;
+                }
+            }
+            if (pick == null) {
+                double best = Double.MAX_VALUE;
+                for (Operand var : remaining) {
+                    double priority = costs.get(var) / degrees.get(var);
+                    if (priority < best) {
+                        best = priority;
+                        pick = var;
+                    }
+                }
+            }
+            remaining.remove(pick);
+            stack.add(pick);
+            for (Operand neighbor : graph.get(pick)) {
+                if (remaining.contains(neighbor)) {
+                    degrees.merge(neighbor, -1, Integer::sum);
+                }
+            }
+        }
+        return stack;
+    }
+
+    private void select(ArrayList<Operand> stack) {
+        for (int i = stack.size() - 1; i >= 0; i--) {
+            Operand var = stack.get(i);
+            HashSet<String> used = new HashSet<>();
+            for (Operand neighbor : graph.get(var)) {
+                String reg = funcStack.getRegister(neighbor);
+                if (reg != null) used.add(reg);
+            }
+            String color = null;
+            if (!crossesCall.contains(var)) {
+                color = firstFree(temporaries, used);
+            }
+            if (color == null) {
+                color = firstFree(saved, used);
+            }
+            if (color != null) {
+                funcStack.putRegister(var, color);
+            }
+        }
+    }
+
+    private String firstFree(String[] regs, HashSet<String> used) {
+        for (String reg : regs) {
+            if (!used.contains(reg)) return reg;
+        }
+        return null;
+    }
+}
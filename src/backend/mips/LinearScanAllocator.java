@@ -0,0 +1,130 @@
+package backend.mips;
+
+import backend.config.*;
+import backend.data.*;
+import optimize.*;
+
+import java.util.*;
+
+public class LinearScanAllocator extends RegisterAllocator {
+    private final LinkedHashMap<Operand, Interval> intervals = new LinkedHashMap<>();
+    private final ArrayList<Integer> calls = new ArrayList<>();
+
+    public LinearScanAllocator(IrList irList, FuncStack funcStack) {
+        super(irList, funcStack);
+    }
+
+    @Override
+    public void allocate() {
+        if (candidates.isEmpty()) return;
+        buildIntervals();
+        extendLiveRanges();
+        ArrayList<Interval> sorted = new ArrayList<>(intervals.values());
+        for (Interval interval : sorted) {
+            int index = Collections.binarySearch(calls, interval.start);
+            index = index >= 0 ? index + 1 : -index - 1;
+            interval.crossesCall = index < calls.size() && calls.get(index) < interval.end;
+        }
+        sorted.sort(Comparator.comparingInt(interval -> interval.start));
+        scan(sorted);
+    }
+
+    private void buildIntervals() {
+        int pos = 0;
+        for (Quad quad : irList) {
+            for (Operand use : getUses(quad)) {
+                cover(use, pos, pos);
+            }
+            Operand def = getDef(quad);
+            if (def != null) {
+                cover(def, pos, pos);
+            }
+            if (quad.op() == OpType.CALL) {
+                calls.add(pos);
+            }
+            pos++;
+        }
+    }
+
+    private void extendLiveRanges() {
+        ArrayList<Block> blocks = new Func(irList).getBlockList();
+        ArrayList<Operand> variables = new ArrayList<>(candidates);
+        HashMap<Operand, Integer> index = new HashMap<>();
+        for (Operand var : variables) {
+            index.put(var, index.size());
+        }
+        Dataflow liveness = computeLiveness(blocks, index);
+        int start = 0;
+        for (Block block : blocks) {
+            int end = start + block.getIrList().size() - 1;
+            BitVector in = liveness.getIn(block);
+            for (int i = in.nextSetBit(0); i >= 0; i = in.nextSetBit(i + 1)) {
+                cover(variables.get(i), start, start);
+            }
+            BitVector out = liveness.getOut(block);
+            for (int i = out.nextSetBit(0); i >= 0; i = out.nextSetBit(i + 1)) {
+                cover(variables.get(i), end, end + 1);
+            }
+            start = end + 1;
+        }
+    }
+
+    private void cover(Operand var, int start, int end) {
+        Interval interval = intervals.get(var);
+        if (interval == null) {
+            intervals.put(var, new Interval(var, start, end));
+        } else {
+            interval.start = Math.min(interval.start, start);
+            interval.end = Math.max(interval.end, end);
+        }
+    }
+
+    private void scan(ArrayList<Interval> sorted) {
+        TreeSet<String> freeTemporaries = new TreeSet<>(Arrays.asList(temporaries));
+        TreeSet<String> freeSaved = new TreeSet<>(Arrays.asList(saved));
+        TreeSet<Interval> active = new TreeSet<>(Comparator.comparingInt((Interval interval) -> interval.end).thenComparing(interval -> interval.var));
+        for (Interval current : sorted) {
+            while (!active.isEmpty() && active.first().end <= current.start) {
+                Interval expired = active.pollFirst();
+                (expired.reg.startsWith("$s") ? freeSaved : freeTemporaries).add(expired.reg);
+            }
+            if (!current.crossesCall && !freeTemporaries.isEmpty()) {
+                current.reg = freeTemporaries.pollFirst();
+            } else if (!freeSaved.isEmpty()) {
+                current.reg = freeSaved.pollFirst();
+            } else {
+                for (Interval victim : active.descendingSet()) {
+                    if (victim.end <= current.end) break;
+                    if (!current.crossesCall || victim.reg.startsWith("$s")) {
+                        current.reg = victim.reg;
+                        victim.reg = null;
+                        active.remove(victim);
+                        break;
+                    }
+                }
+            }
+            if (current.reg != null) {
+                active.add(current);
+            }
+        }
+        for (Interval interval : sorted) {
+            if (interval.reg != null) {
+                funcStack.putRegister(interval.var, interval.reg);
+            }
+        }
+    }
+
+    private static class Interval {
+        private final Operand var;
+        private int start;
+        private int end;
+        private boolean crossesCall;
+        private String reg;
+
+        private Interval(Operand var, int start, int end) {
+            this.var = var;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
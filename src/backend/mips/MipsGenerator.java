@@ -1,5 +1,6 @@
 package backend.mips;
 
+import backend.config.*;
 import backend.data.*;
 import backend.utils.*;
 
@@ -7,68 +8,195 @@ import java.util.*;
 
 public class MipsGenerator {
     private final IrList irList;
+    private final Mode mode;
+    private final Latency latency;
     private final HashSet<String> vars = new HashSet<>();
     private final HashMap<String, Integer> arrays = new HashMap<>();
     private final HashMap<String, String> strings = new HashMap<>();
     private final HashMap<String, FuncStack> functions = new HashMap<>();
+    private final ArrayList<Integer> pendingParams = new ArrayList<>();
+    private final LinkedHashMap<Operand, Integer> pendingLocals = new LinkedHashMap<>();
+    private final HashMap<Integer, Integer> argIndexes = new HashMap<>();
+    private final HashMap<Integer, Integer> stagingSlots = new HashMap<>();
+    private final HashSet<Integer> tailCalls = new HashSet<>();
+    private final HashMap<Operand, Integer> useCounts = new HashMap<>();
     private final StringBuilder dataSection = new StringBuilder();
-    private final StringBuilder textSection = new StringBuilder();
+    private final ArrayList<Instruction> textSection = new ArrayList<>();
     private FuncStack currentFunc;
+    private IrList currentBody;
     private int currentStack = 0;
+    private int peepholeRemoved = 0;
+    private int scheduleSaved = 0;
 
     public MipsGenerator(IrList irList) {
+        this(irList, Mode.coloring, Latency.DEFAULT);
+    }
+
+    public MipsGenerator(IrList irList, Mode mode, Latency latency) {
         this.irList = irList;
+        this.mode = mode;
+        this.latency = latency;
     }
 
     public String generate() {
         collectData();
         generateDataSection();
         generateTextSection();
-        return dataSection + "\n" + textSection;
+        peepholeRemoved = new Peephole(textSection).run();
+        scheduleSaved = new Scheduler(textSection, latency).run();
+        StringBuilder text = new StringBuilder();
+        for (Instruction instruction : textSection) {
+            text.append(instruction).append("\n");
+        }
+        return dataSection + "\n" + text;
+    }
+
+    public int getPeepholeRemoved() {
+        return peepholeRemoved;
+    }
+
+    public int getScheduleSaved() {
+        return scheduleSaved;
     }
 
     private void collectData() {
-        for (Quadruple quad : irList.getIRList()) {
-            String op = quad.op();
-            String arg1 = quad.arg1();
-            String arg2 = quad.arg2();
-            String result = quad.result();
+        int currentStart = 0;
+        for (int i = 0; i < irList.size(); i++) {
+            OpType op = irList.getOp(i);
+            Operand arg1 = irList.getArg1(i);
+            Operand arg2 = irList.getArg2(i);
+            Operand result = irList.getResult(i);
+            if (currentBody != null) {
+                currentBody.add(op, arg1, arg2, result);
+            }
             switch (op) {
-                case "func_begin" -> {
-                    currentFunc = new FuncStack(arg1);
-                    currentStack = -8;
+                case FUNC_BEGIN -> {
+                    currentFunc = new FuncStack(arg1.getName());
+                    currentBody = new IrList();
+                    currentBody.add(op, arg1, arg2, result);
+                    currentStack = 0;
+                    currentStart = i;
                 }
-                case "func_end" -> {
+                case FUNC_END -> {
                     if (currentFunc != null) {
-                        currentFunc.setStackSize(currentStack);
+                        allocateRegisters();
+                        layoutFrame(currentStart, i);
                         functions.put(currentFunc.getName(), currentFunc);
                     }
                     currentFunc = null;
+                    currentBody = null;
                 }
-                case "func_param" -> {
+                case FUNC_PARAM -> {
                     if (currentFunc != null) {
-                        currentFunc.putParam(arg1, Integer.parseInt(arg2) * 4);
+                        currentFunc.getParams().add(arg1);
+                    }
+                }
+                case ALLOC -> {
+                    if (currentFunc != null && result != Operand.STATIC) {
+                        pendingLocals.put(arg1, 1);
+                    } else {
+                        vars.add(arg1.getName());
                     }
                 }
-                case "alloc" -> {
-                    if (currentFunc != null && !result.equals("static")) {
-                        currentStack -= 4;
-                        currentFunc.putLocal(arg1, currentStack);
+                case ARRAY_ALLOC -> {
+                    if (currentFunc != null && result != Operand.STATIC) {
+                        pendingLocals.put(arg1, arg2.getValue());
                     } else {
-                        vars.add(arg1);
+                        arrays.put(arg1.getName(), arg2.getValue());
                     }
                 }
-                case "array_alloc" -> {
-                    if (currentFunc != null && !result.equals("static")) {
-                        currentStack -= Integer.parseInt(arg2) * 4;
-                        currentFunc.putLocal(arg1, currentStack);
+                case PRINT -> strings.put(result.getName(), arg1.getName());
+            }
+        }
+    }
+
+    private void allocateRegisters() {
+        if (mode == Mode.coloring) {
+            new GraphColoringAllocator(currentBody, currentFunc).allocate();
+        } else if (mode == Mode.linear) {
+            new LinearScanAllocator(currentBody, currentFunc).allocate();
+        }
+        if (!currentFunc.getName().equals("main")) {
+            for (String reg : new TreeSet<>(currentFunc.getRegisters().values())) {
+                if (reg.startsWith("$s")) {
+                    currentStack -= 4;
+                    currentFunc.putSaved(reg, currentStack);
+                }
+            }
+        }
+    }
+
+    private void planCalls(int start, int end) {
+        ArrayList<Integer> pending = new ArrayList<>();
+        int clobber = start;
+        int staging = 0;
+        for (int i = start; i < end; i++) {
+            switch (irList.getOp(i)) {
+                case PARAM -> pending.add(i);
+                case PRINT, PRINTF -> clobber = i;
+                case CALL -> {
+                    int count = irList.getArg2(i).getValue();
+                    int base = pending.size() - count;
+                    List<Integer> args = pending.subList(base, pending.size());
+                    for (int k = 0; k < count; k++) {
+                        argIndexes.put(args.get(k), k);
+                        if (args.get(k) < clobber) {
+                            stagingSlots.put(args.get(k), base + k);
+                            staging = Math.max(staging, base + k + 1);
+                        }
+                    }
+                    currentFunc.setOutgoing(Math.max(currentFunc.getOutgoing(), count - 4));
+                    if (isTailCall(irList.getArg1(i).getName(), args, irList.getResult(i), i)) {
+                        tailCalls.add(i);
                     } else {
-                        arrays.put(arg1, Integer.parseInt(arg2));
+                        currentFunc.setLeaf(false);
                     }
+                    args.clear();
+                    clobber = i;
                 }
-                case "print" -> strings.put(result, arg1);
             }
         }
+        for (int k = 0; k < staging; k++) {
+            currentStack -= 4;
+            currentFunc.getStagingOffsets().add(currentStack);
+        }
+    }
+
+    private void layoutFrame(int start, int end) {
+        for (Map.Entry<Operand, Integer> entry : pendingLocals.entrySet()) {
+            if (currentFunc.getRegister(entry.getKey()) == null) {
+                currentStack -= entry.getValue() * 4;
+                currentFunc.putLocal(entry.getKey(), currentStack);
+            }
+        }
+        pendingLocals.clear();
+        ArrayList<Operand> params = currentFunc.getParams();
+        for (int k = 0; k < params.size(); k++) {
+            Operand param = params.get(k);
+            if (k >= 4) {
+                currentFunc.putParam(param, (k - 4) * 4);
+                continue;
+            }
+            currentFunc.putArgument(param, "$a" + k);
+            if (currentFunc.getRegister(param) == null) {
+                currentStack -= 4;
+                currentFunc.putParam(param, currentStack);
+            }
+        }
+        planCalls(start, end);
+        if (savesReturn()) {
+            currentStack -= 4;
+            currentFunc.setReturnOffset(currentStack);
+        }
+        currentFunc.setStackSize(currentStack - currentFunc.getOutgoing() * 4);
+    }
+
+    private boolean savesReturn() {
+        return !currentFunc.isLeaf() && !currentFunc.getName().equals("main");
+    }
+
+    private int frame(int offset) {
+        return offset + Math.abs(currentFunc.getStackSize());
     }
 
     private void generateDataSection() {
@@ -92,206 +220,369 @@ public class MipsGenerator {
     }
 
     private void generateTextSection() {
-        textSection.append(".text\n");
-        textSection.append(".globl main\n\n");
-        for (Quadruple quad : irList.getIRList()) {
-            textSection.append("# ").append(quad.toString()).append("\n");
-            String op = quad.op();
-            String arg1 = quad.arg1();
-            String arg2 = quad.arg2();
-            String result = quad.result();
+        textSection.add(Instruction.text(".text"));
+        textSection.add(Instruction.text(".globl main"));
+        textSection.add(Instruction.text(""));
+        for (Quad quad : irList) {
+            for (Operand use : quad.getUses()) {
+                useCounts.merge(use, 1, Integer::sum);
+            }
+        }
+        for (int i = 0; i < irList.size(); i++) {
+            Quadruple quad = irList.get(i);
+            textSection.add(Instruction.comment(quad.toString()));
+            OpType op = quad.op();
+            Operand arg1 = quad.arg1();
+            Operand arg2 = quad.arg2();
+            Operand result = quad.result();
             switch (op) {
-                case "func_begin" -> generateFuncBegin(arg1);
-                case "func_end" -> generateFuncEnd();
-                case "ret" -> generateReturn(arg1);
-                case "assign" -> {
-                    load(arg1, "$t0");
-                    store(result, "$t0");
+                case FUNC_BEGIN -> generateFuncBegin(arg1.getName());
+                case FUNC_END -> generateFuncEnd();
+                case RET -> generateReturn(arg1);
+                case ASSIGN -> {
+                    String reg = target(result, "$t0");
+                    load(arg1, reg);
+                    store(result, reg);
+                }
+                case STORE -> generateArrayStore(arg1, arg2, result);
+                case LOAD -> generateArrayLoad(arg1, arg2, result);
+                case LABEL -> textSection.add(Instruction.label(result.getName()));
+                case J -> textSection.add(Instruction.jump(MipsOp.J, result.getName()));
+                case BEQ -> {
+                    String reg1 = use(arg1, "$t0");
+                    String reg2 = Calculate.isValue(arg2, 0) ? "$zero" : use(arg2, "$t1");
+                    textSection.add(Instruction.branch(MipsOp.BEQ, reg1, reg2, result.getName()));
                 }
-                case "store" -> generateArrayStore(arg1, arg2, result);
-                case "load" -> generateArrayLoad(arg1, arg2, result);
-                case "label" -> textSection.append(result).append(":\n");
-                case "j" -> textSection.append("j ").append(result).append("\n");
-                case "beq" -> {
-                    load(arg1, "$t0");
-                    load(arg2, "$t1");
-                    textSection.append("beq $t0, $t1, ").append(result).append("\n");
+                case FUNC_PARAM -> generateFuncParam(arg1);
+                case PARAM -> {
+                    pendingParams.add(i);
+                    generateParam(arg1, arg2, i);
+                }
+                case CALL -> {
+                    List<Integer> args = pendingParams.subList(pendingParams.size() - arg2.getValue(), pendingParams.size());
+                    generateArguments(args);
+                    if (tailCalls.contains(i)) {
+                        generateTailCall(arg1.getName(), arg2.getValue());
+                        i++;
+                    } else {
+                        generateCall(arg1.getName(), result);
+                    }
+                    args.clear();
                 }
-                case "param" -> generateParam(arg1, arg2);
-                case "call" -> generateCall(arg1, arg2, result);
-                case "get_int" -> {
-                    textSection.append("li $v0, 5\n");
-                    textSection.append("syscall\n");
+                case GET_INT -> {
+                    textSection.add(Instruction.li("$v0", 5));
+                    textSection.add(Instruction.syscall());
                     store(result, "$v0");
                 }
-                case "print" -> {
-                    textSection.append("la $a0, ").append(result).append("\n");
-                    textSection.append("li $v0, 4\n");
-                    textSection.append("syscall\n");
+                case PRINT -> {
+                    textSection.add(Instruction.la("$a0", result.getName()));
+                    textSection.add(Instruction.li("$v0", 4));
+                    textSection.add(Instruction.syscall());
                 }
-                case "printf" -> {
+                case PRINTF -> {
                     load(arg1, "$a0");
-                    textSection.append("li $v0, 1\n");
-                    textSection.append("syscall\n");
+                    textSection.add(Instruction.li("$v0", 1));
+                    textSection.add(Instruction.syscall());
+                }
+                case SLT, SGT, SLE, SGE, SEQ, SNE -> {
+                    if (isFusible(result, i)) {
+                        generateCompareBranch(op, arg1, arg2, irList.getResult(i + 1).getName());
+                        i++;
+                    } else {
+                        generateBinaryOp(op, arg1, arg2, result);
+                    }
                 }
                 default -> {
-                    if (Calculate.canCalculate(op)) {
+                    if (op.canCalculate()) {
                         generateBinaryOp(op, arg1, arg2, result);
                     }
                 }
             }
         }
-        textSection.append("li $v0, 10\n");
-        textSection.append("syscall\n");
+        textSection.add(Instruction.li("$v0", 10));
+        textSection.add(Instruction.syscall());
+    }
+
+    private String use(Operand var, String scratch) {
+        String reg = currentFunc != null ? currentFunc.getRegister(var) : null;
+        if (reg != null) {
+            return reg;
+        }
+        load(var, scratch);
+        return scratch;
+    }
+
+    private String target(Operand var, String scratch) {
+        String reg = currentFunc != null ? currentFunc.getRegister(var) : null;
+        return reg != null ? reg : scratch;
+    }
+
+    private void move(String dst, String src) {
+        if (!dst.equals(src)) {
+            textSection.add(Instruction.move(dst, src));
+        }
     }
 
-    private void load(String var, String reg) {
-        if (Calculate.isNumber(var)) {
-            textSection.append("li ").append(reg).append(", ").append(var).append("\n");
+    private void load(Operand var, String reg) {
+        if (var.isImmediate()) {
+            textSection.add(Instruction.li(reg, var.getValue()));
+        } else if (currentFunc != null && currentFunc.getRegister(var) != null) {
+            move(reg, currentFunc.getRegister(var));
         } else if (currentFunc != null && currentFunc.containsLocal(var)) {
             int offset = currentFunc.getLocalOffsets().get(var);
-            textSection.append("lw ").append(reg).append(", ").append(offset).append("($fp)\n");
+            textSection.add(Instruction.mem(MipsOp.LW, reg, frame(offset), "$sp"));
         } else if (currentFunc != null && currentFunc.containsParam(var)) {
             int offset = currentFunc.getParamOffsets().get(var);
-            textSection.append("lw ").append(reg).append(", ").append(offset).append("($fp)\n");
+            textSection.add(Instruction.mem(MipsOp.LW, reg, frame(offset), "$sp"));
         } else {
-            textSection.append("lw ").append(reg).append(", ").append(var).append("\n");
+            textSection.add(Instruction.mem(MipsOp.LW, reg, var.getName()));
         }
     }
 
-    private void store(String var, String reg) {
-        if (currentFunc != null && currentFunc.containsLocal(var)) {
+    private void store(Operand var, String reg) {
+        if (currentFunc != null && currentFunc.getRegister(var) != null) {
+            move(currentFunc.getRegister(var), reg);
+        } else if (currentFunc != null && currentFunc.containsLocal(var)) {
             int offset = currentFunc.getLocalOffsets().get(var);
-            textSection.append("sw ").append(reg).append(", ").append(offset).append("($fp)\n");
+            textSection.add(Instruction.mem(MipsOp.SW, reg, frame(offset), "$sp"));
         } else if (currentFunc != null && currentFunc.containsParam(var)) {
             int offset = currentFunc.getParamOffsets().get(var);
-            textSection.append("sw ").append(reg).append(", ").append(offset).append("($fp)\n");
+            textSection.add(Instruction.mem(MipsOp.SW, reg, frame(offset), "$sp"));
         } else {
-            textSection.append("sw ").append(reg).append(", ").append(var).append("\n");
+            textSection.add(Instruction.mem(MipsOp.SW, reg, var.getName()));
         }
     }
 
-    private void loadAddr(String var) {
-        String reg = "$t0";
+    private void loadAddr(Operand var, String reg) {
         if (currentFunc != null && currentFunc.containsLocal(var)) {
             int offset = currentFunc.getLocalOffsets().get(var);
-            textSection.append("addu ").append(reg).append(", $fp, ").append(offset).append("\n");
+            textSection.add(Instruction.imm(MipsOp.ADDU, reg, "$sp", frame(offset)));
         } else if (currentFunc != null && currentFunc.containsParam(var)) {
             int offset = currentFunc.getParamOffsets().get(var);
-            textSection.append("lw ").append(reg).append(", ").append(offset).append("($fp)\n");
+            textSection.add(Instruction.mem(MipsOp.LW, reg, frame(offset), "$sp"));
         } else {
-            textSection.append("la ").append(reg).append(", ").append(var).append("\n");
+            textSection.add(Instruction.la(reg, var.getName()));
         }
     }
 
     private void generateFuncBegin(String funcName) {
         currentFunc = functions.get(funcName);
-        textSection.append("\n").append(funcName).append(":\n");
-        textSection.append("sw $ra, -4($sp)\n");
-        textSection.append("sw $fp, -8($sp)\n");
-        textSection.append("move $fp, $sp\n");
+        textSection.add(Instruction.text(""));
+        textSection.add(Instruction.label(funcName));
         int stackSize = Math.abs(currentFunc.getStackSize());
-        textSection.append("subu $sp, $sp, ").append(stackSize).append("\n");
+        if (stackSize > 0) {
+            textSection.add(Instruction.imm(MipsOp.SUBU, "$sp", "$sp", stackSize));
+        }
+        if (savesReturn()) {
+            textSection.add(Instruction.mem(MipsOp.SW, "$ra", frame(currentFunc.getReturnOffset()), "$sp"));
+        }
+        for (Map.Entry<String, Integer> entry : currentFunc.getSavedOffsets().entrySet()) {
+            textSection.add(Instruction.mem(MipsOp.SW, entry.getKey(), frame(entry.getValue()), "$sp"));
+        }
+    }
+
+    private void generateFuncParam(Operand param) {
+        String reg = currentFunc.getRegister(param);
+        String arg = currentFunc.getArgument(param);
+        if (arg != null && reg != null) {
+            move(reg, arg);
+        } else if (arg != null) {
+            textSection.add(Instruction.mem(MipsOp.SW, arg, frame(currentFunc.getParamOffsets().get(param)), "$sp"));
+        } else if (reg != null) {
+            textSection.add(Instruction.mem(MipsOp.LW, reg, frame(currentFunc.getParamOffsets().get(param)), "$sp"));
+        }
     }
 
     private void generateFuncEnd() {
-        String endLabel = currentFunc.getName() + "_end";
-        textSection.append(endLabel).append(":\n");
-        int stackSize = Math.abs(currentFunc.getStackSize());
-        textSection.append("addu $sp, $sp, ").append(stackSize).append("\n");
-        textSection.append("lw $ra, -4($fp)\n");
-        textSection.append("lw $fp, -8($fp)\n");
+        textSection.add(Instruction.label(currentFunc.getName() + "_end"));
         if (!currentFunc.getName().equals("main")) {
-            textSection.append("jr $ra\n");
+            restoreFrame();
+            textSection.add(Instruction.jr("$ra"));
         }
-        textSection.append("\n");
+        textSection.add(Instruction.text(""));
         currentFunc = null;
     }
 
-    private void generateReturn(String val) {
-        if (!val.equals("_")) {
-            load(val, "$v0");
+    private void restoreFrame() {
+        for (Map.Entry<String, Integer> entry : currentFunc.getSavedOffsets().entrySet()) {
+            textSection.add(Instruction.mem(MipsOp.LW, entry.getKey(), frame(entry.getValue()), "$sp"));
+        }
+        if (savesReturn()) {
+            textSection.add(Instruction.mem(MipsOp.LW, "$ra", frame(currentFunc.getReturnOffset()), "$sp"));
+        }
+        int stackSize = Math.abs(currentFunc.getStackSize());
+        if (stackSize > 0) {
+            textSection.add(Instruction.imm(MipsOp.ADDU, "$sp", "$sp", stackSize));
         }
-        textSection.append("j ").append(currentFunc.getName()).append("_end\n");
     }
 
-    private boolean isValid(String arg) {
-        if (Calculate.isNumber(arg)) {
-            int val = Integer.parseInt(arg);
-            return val >= -32768 && val <= 32767;
+    private void generateReturn(Operand val) {
+        if (!val.isNone()) {
+            load(val, "$v0");
+        }
+        if (!currentFunc.getName().equals("main") && currentFunc.getSavedOffsets().isEmpty()) {
+            restoreFrame();
+            textSection.add(Instruction.jr("$ra"));
+        } else {
+            textSection.add(Instruction.jump(MipsOp.J, currentFunc.getName() + "_end"));
         }
-        return false;
     }
 
-    private boolean immediate(String op, String arg1, String arg2, String result) {
+    private boolean isValid(Operand arg) {
+        return arg.isImmediate() && arg.getValue() >= -32768 && arg.getValue() <= 32767;
+    }
+
+    private boolean immediate(OpType op, Operand arg1, Operand arg2, Operand result) {
         if (Calculate.change(op) == null) {
             return false;
         }
-        String opNew = Calculate.change(op);
+        MipsOp opNew = MipsOp.of(Calculate.change(op));
         if (isValid(arg2)) {
-            load(arg1, "$t0");
-            textSection.append(opNew).append(" $t0, $t0, ").append(arg2).append("\n");
-            store(result, "$t0");
+            String src = use(arg1, "$t0");
+            String dst = target(result, "$t0");
+            textSection.add(Instruction.imm(opNew, dst, src, arg2.getValue()));
+            store(result, dst);
             return true;
-        } else if (isValid(arg1) && Calculate.canSwap(op)) {
-            load(arg2, "$t0");
-            textSection.append(opNew).append(" $t0, $t0, ").append(arg1).append("\n");
-            store(result, "$t0");
+        } else if (isValid(arg1) && op.canSwap()) {
+            String src = use(arg2, "$t0");
+            String dst = target(result, "$t0");
+            textSection.add(Instruction.imm(opNew, dst, src, arg1.getValue()));
+            store(result, dst);
             return true;
         }
         return false;
     }
 
-    private void generateBinaryOp(String op, String arg1, String arg2, String result) {
+    private void generateBinaryOp(OpType op, Operand arg1, Operand arg2, Operand result) {
         if (!immediate(op, arg1, arg2, result)) {
-            load(arg1, "$t0");
-            load(arg2, "$t1");
-            if (op.equals("mod")) {
-                textSection.append("div $t0, $t1\n");
-                textSection.append("mfhi $t0\n");
+            String reg1 = use(arg1, "$t0");
+            String reg2 = use(arg2, "$t1");
+            String dst = target(result, "$t0");
+            if (op == OpType.MOD) {
+                textSection.add(Instruction.of(MipsOp.DIV, null, reg1, reg2));
+                textSection.add(Instruction.high(MipsOp.MFHI, dst));
+            } else if (op == OpType.MULHI) {
+                textSection.add(Instruction.of(MipsOp.MULT, null, reg1, reg2));
+                textSection.add(Instruction.high(MipsOp.MFHI, dst));
             } else {
-                textSection.append(op).append(" $t0, $t0, $t1\n");
+                textSection.add(Instruction.of(MipsOp.of(op.toString()), dst, reg1, reg2));
             }
-            store(result, "$t0");
+            store(result, dst);
+        }
+    }
+
+    private boolean isFusible(Operand result, int index) {
+        if (index + 1 >= irList.size() || !result.isLocal() || useCounts.getOrDefault(result, 0) != 1) return false;
+        return irList.getOp(index + 1) == OpType.BEQ && irList.getArg1(index + 1) == result && Calculate.isValue(irList.getArg2(index + 1), 0);
+    }
+
+    private void generateCompareBranch(OpType op, Operand arg1, Operand arg2, String label) {
+        MipsOp branch = switch (op) {
+            case SLT -> MipsOp.BGE;
+            case SGT -> MipsOp.BLE;
+            case SLE -> MipsOp.BGT;
+            case SGE -> MipsOp.BLT;
+            case SEQ -> MipsOp.BNE;
+            default -> MipsOp.BEQ;
+        };
+        if (arg1.isImmediate() && !arg2.isImmediate()) {
+            Operand temp = arg1;
+            arg1 = arg2;
+            arg2 = temp;
+            branch = branch.swap();
+        }
+        String reg1 = use(arg1, "$t0");
+        if (Calculate.isValue(arg2, 0) && branch.toZero() != null) {
+            textSection.add(Instruction.zero(branch.toZero(), reg1, label));
+        } else if (Calculate.isValue(arg2, 0)) {
+            textSection.add(Instruction.branch(branch, reg1, "$zero", label));
+        } else if (arg2.isImmediate()) {
+            textSection.add(Instruction.branch(branch, reg1, arg2.getValue(), label));
+        } else {
+            textSection.add(Instruction.branch(branch, reg1, use(arg2, "$t1"), label));
         }
     }
 
-    private void generateArrayStore(String value, String index, String arrayName) {
-        loadAddr(arrayName);
-        load(index, "$t1");
-        textSection.append("sll $t1, $t1, 2\n");
-        textSection.append("addu $t0, $t0, $t1\n");
-        load(value, "$t1");
-        textSection.append("sw $t1, 0($t0)\n");
+    private void generateArrayStore(Operand value, Operand index, Operand arrayName) {
+        loadAddr(arrayName, "$t0");
+        String reg = use(index, "$t1");
+        textSection.add(Instruction.imm(MipsOp.SLL, "$t1", reg, 2));
+        textSection.add(Instruction.of(MipsOp.ADDU, "$t0", "$t0", "$t1"));
+        reg = use(value, "$t1");
+        textSection.add(Instruction.mem(MipsOp.SW, reg, 0, "$t0"));
     }
 
-    private void generateArrayLoad(String arrayName, String index, String dst) {
-        loadAddr(arrayName);
-        load(index, "$t1");
-        textSection.append("sll $t1, $t1, 2\n");
-        textSection.append("addu $t0, $t0, $t1\n");
-        textSection.append("lw $t0, 0($t0)\n");
-        store(dst, "$t0");
+    private void generateArrayLoad(Operand arrayName, Operand index, Operand dst) {
+        loadAddr(arrayName, "$t0");
+        String reg = use(index, "$t1");
+        textSection.add(Instruction.imm(MipsOp.SLL, "$t1", reg, 2));
+        textSection.add(Instruction.of(MipsOp.ADDU, "$t0", "$t0", "$t1"));
+        String target = target(dst, "$t0");
+        textSection.add(Instruction.mem(MipsOp.LW, target, 0, "$t0"));
+        store(dst, target);
     }
 
-    private void generateParam(String value, String type) {
-        if (type.equals("array")) {
-            loadAddr(value);
+    private void generateParam(Operand value, Operand type, int index) {
+        int k = argIndexes.get(index);
+        Integer slot = stagingSlots.get(index);
+        if (slot == null && k < 4) {
+            if (type == Operand.ARRAY) {
+                loadAddr(value, "$a" + k);
+            } else {
+                load(value, "$a" + k);
+            }
+            return;
+        }
+        String reg = "$t0";
+        if (type == Operand.ARRAY) {
+            loadAddr(value, reg);
         } else {
-            load(value, "$t0");
+            reg = use(value, "$t0");
         }
-        textSection.append("subu $sp, $sp, 4\n");
-        textSection.append("sw $t0, 0($sp)\n");
+        int offset = slot != null ? frame(currentFunc.getStagingOffsets().get(slot)) : (k - 4) * 4;
+        textSection.add(Instruction.mem(MipsOp.SW, reg, offset, "$sp"));
     }
 
-    private void generateCall(String funcName, String paramCountStr, String result) {
-        textSection.append("jal ").append(funcName).append("\n");
-        int paramCount = Integer.parseInt(paramCountStr);
-        if (paramCount > 0) {
-            textSection.append("addu $sp, $sp, ").append(paramCount * 4).append("\n");
+    private void generateArguments(List<Integer> args) {
+        for (int index : args) {
+            Integer slot = stagingSlots.get(index);
+            if (slot == null) continue;
+            int k = argIndexes.get(index);
+            int offset = frame(currentFunc.getStagingOffsets().get(slot));
+            if (k < 4) {
+                textSection.add(Instruction.mem(MipsOp.LW, "$a" + k, offset, "$sp"));
+            } else {
+                textSection.add(Instruction.mem(MipsOp.LW, "$t0", offset, "$sp"));
+                textSection.add(Instruction.mem(MipsOp.SW, "$t0", (k - 4) * 4, "$sp"));
+            }
         }
-        if (!result.equals("_")) {
+    }
+
+    private void generateCall(String funcName, Operand result) {
+        textSection.add(Instruction.jump(MipsOp.JAL, funcName));
+        if (!result.isNone()) {
             store(result, "$v0");
         }
     }
+
+    private boolean isTailCall(String funcName, List<Integer> args, Operand result, int index) {
+        if (currentFunc.getName().equals("main") || funcName.equals("main") || index + 1 >= irList.size()) return false;
+        if (args.size() > 4 && args.size() > currentFunc.getParams().size()) return false;
+        if (irList.getOp(index + 1) != OpType.RET || (!irList.getArg1(index + 1).isNone() && irList.getArg1(index + 1) != result)) return false;
+        for (int arg : args) {
+            if (irList.getArg2(arg) == Operand.ARRAY && currentFunc.containsLocal(irList.getArg1(arg))) return false;
+        }
+        return true;
+    }
+
+    private void generateTailCall(String funcName, int paramCount) {
+        for (int k = 4; k < paramCount; k++) {
+            textSection.add(Instruction.mem(MipsOp.LW, "$t0", (k - 4) * 4, "$sp"));
+            textSection.add(Instruction.mem(MipsOp.SW, "$t0", frame((k - 4) * 4), "$sp"));
+        }
+        restoreFrame();
+        textSection.add(Instruction.jump(MipsOp.J, funcName));
+    }
+
+    public enum Mode {memory, linear, coloring}
 }
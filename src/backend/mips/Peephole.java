@@ -0,0 +1,157 @@
+package backend.mips;
+
+import backend.config.*;
+import backend.data.*;
+
+import java.util.*;
+
+public class Peephole {
+    private final ArrayList<Instruction> text;
+
+    public Peephole(ArrayList<Instruction> text) {
+        this.text = text;
+    }
+
+    public int run() {
+        int before = count();
+        boolean changed = true;
+        while (changed) {
+            changed = threadJumps();
+            changed |= removeWindows();
+            changed |= removeRedundantConstants();
+            changed |= removeUnreachable();
+        }
+        return before - count();
+    }
+
+    private int count() {
+        int count = 0;
+        for (Instruction instruction : text) {
+            if (!instruction.op().isPseudo()) count++;
+        }
+        return count;
+    }
+
+    private int next(int index) {
+        for (int i = index + 1; i < text.size(); i++) {
+            Instruction instruction = text.get(i);
+            if (instruction != null && instruction.op() != MipsOp.COMMENT && instruction.op() != MipsOp.TEXT) return i;
+        }
+        return -1;
+    }
+
+    private boolean compact() {
+        return text.removeIf(Objects::isNull);
+    }
+
+    private boolean threadJumps() {
+        HashMap<String, Integer> labels = new HashMap<>();
+        for (int i = 0; i < text.size(); i++) {
+            if (text.get(i).op() == MipsOp.LABEL) labels.put(text.get(i).label(), i);
+        }
+        boolean changed = false;
+        for (int i = 0; i < text.size(); i++) {
+            Instruction instruction = text.get(i);
+            if (instruction.op() != MipsOp.J && !instruction.op().isBranch()) continue;
+            String target = instruction.label();
+            HashSet<String> visited = new HashSet<>();
+            while (labels.containsKey(target) && visited.add(target)) {
+                int j = next(labels.get(target));
+                while (j >= 0 && text.get(j).op() == MipsOp.LABEL) {
+                    j = next(j);
+                }
+                if (j < 0 || text.get(j).op() != MipsOp.J) break;
+                target = text.get(j).label();
+            }
+            if (!target.equals(instruction.label())) {
+                text.set(i, instruction.withLabel(target));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private boolean removeWindows() {
+        for (int i = next(-1); i >= 0; i = next(i)) {
+            Instruction a = text.get(i);
+            if (isIdentity(a)) {
+                text.set(i, null);
+                continue;
+            }
+            int j = next(i);
+            if (j < 0) break;
+            Instruction b = text.get(j);
+            if (a.op() == MipsOp.SW && b.op() == MipsOp.LW && a.sameAddress(b)) {
+                text.set(j, a.rd().equals(b.rd()) ? null : Instruction.move(b.rd(), a.rd()));
+            } else if (a.op() == MipsOp.LW && b.isMemory() && a.sameAddress(b) && a.rd().equals(b.rd()) && !a.rd().equals(a.rs())) {
+                text.set(j, null);
+            } else if (a.op() == MipsOp.MOVE && b.op() == MipsOp.MOVE && a.rd().equals(b.rs()) && a.rs().equals(b.rd())) {
+                text.set(j, null);
+            } else if (a.op().isBranch() && b.op() == MipsOp.J && jumpsToNext(a, next(j))) {
+                text.set(i, a.negate(b.label()));
+                text.set(j, null);
+            } else if (a.op() == MipsOp.J && jumpsToNext(a, j)) {
+                text.set(i, null);
+            }
+        }
+        return compact();
+    }
+
+    private boolean isIdentity(Instruction instruction) {
+        return switch (instruction.op()) {
+            case ADDU, SUBU, SLL, SRA, SRL -> instruction.rt() == null && instruction.imm() == 0 && instruction.rd().equals(instruction.rs());
+            case MOVE -> instruction.rd().equals(instruction.rs());
+            default -> false;
+        };
+    }
+
+    private boolean jumpsToNext(Instruction jump, int index) {
+        for (int j = index; j >= 0 && text.get(j).op() == MipsOp.LABEL; j = next(j)) {
+            if (text.get(j).label().equals(jump.label())) return true;
+        }
+        return false;
+    }
+
+    private boolean removeRedundantConstants() {
+        HashMap<String, Integer> known = new HashMap<>();
+        for (int i = 0; i < text.size(); i++) {
+            Instruction instruction = text.get(i);
+            switch (instruction.op()) {
+                case LABEL, JAL, J, JR -> known.clear();
+                case LI -> {
+                    if (Objects.equals(known.get(instruction.rd()), instruction.imm())) {
+                        text.set(i, null);
+                    } else {
+                        known.put(instruction.rd(), instruction.imm());
+                    }
+                }
+                case MOVE -> {
+                    if (known.containsKey(instruction.rs())) {
+                        known.put(instruction.rd(), known.get(instruction.rs()));
+                    } else {
+                        known.remove(instruction.rd());
+                    }
+                }
+                default -> {
+                    if (instruction.getDef() != null) known.remove(instruction.getDef());
+                }
+            }
+        }
+        return compact();
+    }
+
+    private boolean removeUnreachable() {
+        boolean reachable = true;
+        for (int i = 0; i < text.size(); i++) {
+            Instruction instruction = text.get(i);
+            if (instruction.op() == MipsOp.LABEL) {
+                reachable = true;
+            } else if (!reachable && !instruction.op().isPseudo()) {
+                text.set(i, null);
+            } else if (instruction.isJump()) {
+                reachable = false;
+            }
+        }
+        return compact();
+    }
+}
@@ -0,0 +1,59 @@
+package backend.mips;
+
+import backend.config.*;
+import backend.data.*;
+import optimize.*;
+
+import java.util.*;
+
+public abstract class RegisterAllocator {
+    protected static final String[] temporaries = {"$t2", "$t3", "$t4", "$t5", "$t6", "$t7", "$t8", "$t9"};
+    protected static final String[] saved = {"$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7"};
+    protected final IrList irList;
+    protected final FuncStack funcStack;
+    protected final LinkedHashSet<Operand> candidates = new LinkedHashSet<>();
+
+    protected RegisterAllocator(IrList irList, FuncStack funcStack) {
+        this.irList = irList;
+        this.funcStack = funcStack;
+        for (Quad quad : irList) {
+            if (quad.op() == OpType.ALLOC && quad.result() != Operand.STATIC) {
+                candidates.add(quad.arg1());
+            } else if (quad.op() == OpType.FUNC_PARAM && quad.result() == Operand.INT) {
+                candidates.add(quad.arg1());
+            }
+        }
+    }
+
+    public abstract void allocate();
+
+    protected Operand getDef(Quad quad) {
+        Operand def = quad.getDef();
+        return candidates.contains(def) ? def : null;
+    }
+
+    protected Dataflow computeLiveness(List<Block> blocks, Map<Operand, Integer> index) {
+        Dataflow liveness = new Dataflow(blocks, index.size(), Dataflow.Direction.backward, Dataflow.Meet.union);
+        for (Block block : blocks) {
+            BitVector use = new BitVector(index.size());
+            BitVector def = new BitVector(index.size());
+            for (Quad quad : block.getIrList()) {
+                for (Operand operand : getUses(quad)) {
+                    if (!def.get(index.get(operand))) use.set(index.get(operand));
+                }
+                Operand operand = getDef(quad);
+                if (operand != null) def.set(index.get(operand));
+            }
+            liveness.setTransfer(block, use, def);
+        }
+        return liveness.solve();
+    }
+
+    protected List<Operand> getUses(Quad quad) {
+        ArrayList<Operand> uses = new ArrayList<>(2);
+        for (Operand use : quad.getUses()) {
+            if (candidates.contains(use)) uses.add(use);
+        }
+        return uses;
+    }
+}
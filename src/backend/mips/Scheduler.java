@@ -0,0 +1,231 @@
+package backend.mips;
+
+import backend.config.*;
+import backend.data.*;
+
+import java.util.*;
+
+public class Scheduler {
+    private static final int window = 64;
+    private final ArrayList<Instruction> text;
+    private final Latency latency;
+    private final ArrayList<Instruction> result = new ArrayList<>();
+    private ArrayList<Instruction> nodes;
+    private ArrayList<Set<String>> defs;
+    private ArrayList<Set<String>> uses;
+    private ArrayList<HashMap<Integer, Integer>> preds;
+    private ArrayList<HashMap<Integer, Integer>> succs;
+
+    public Scheduler(ArrayList<Instruction> text, Latency latency) {
+        this.text = text;
+        this.latency = latency;
+    }
+
+    public int run() {
+        int saved = 0;
+        ArrayList<Instruction> region = new ArrayList<>();
+        for (Instruction instruction : text) {
+            if (instruction.op().getFormat() == MipsOp.Format.label || instruction.op() == MipsOp.TEXT) {
+                saved += schedule(region, null);
+                result.add(instruction);
+                region.clear();
+            } else if (instruction.isBarrier()) {
+                saved += schedule(region, instruction);
+                region.clear();
+            } else {
+                region.add(instruction);
+                if (region.size() >= window && !region.get(region.size() - 1).op().isPseudo()) {
+                    saved += schedule(region, null);
+                    region.clear();
+                }
+            }
+        }
+        saved += schedule(region, null);
+        text.clear();
+        text.addAll(result);
+        return saved;
+    }
+
+    private int schedule(ArrayList<Instruction> region, Instruction terminator) {
+        nodes = new ArrayList<>();
+        ArrayList<ArrayList<Instruction>> comments = new ArrayList<>();
+        ArrayList<Instruction> pending = new ArrayList<>();
+        for (Instruction instruction : region) {
+            if (instruction.op().isPseudo()) {
+                pending.add(instruction);
+            } else {
+                nodes.add(instruction);
+                comments.add(pending);
+                pending = new ArrayList<>();
+            }
+        }
+        if (terminator != null) {
+            nodes.add(terminator);
+            comments.add(pending);
+            pending = new ArrayList<>();
+        }
+        buildGraph();
+        ArrayList<Integer> original = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            original.add(i);
+        }
+        ArrayList<Integer> order = listSchedule();
+        int saved = cycles(original) - cycles(order);
+        if (saved <= 0) {
+            order = original;
+            saved = 0;
+        }
+        int slot = -1;
+        if (terminator != null && latency.delaySlot() && terminator.op().hasDelaySlot()) {
+            order.remove(order.size() - 1);
+            slot = fillDelaySlot(order);
+            order.add(nodes.size() - 1);
+        }
+        for (int index : order) {
+            result.addAll(comments.get(index));
+            result.add(nodes.get(index));
+        }
+        if (slot >= 0) {
+            result.addAll(comments.get(slot));
+            result.add(nodes.get(slot));
+        } else if (terminator != null && latency.delaySlot() && terminator.op().hasDelaySlot()) {
+            result.add(Instruction.nop());
+        }
+        result.addAll(pending);
+        return saved;
+    }
+
+    private Set<String> getDefs(Instruction instruction) {
+        HashSet<String> set = new HashSet<>();
+        if (instruction.getDef() != null) set.add(instruction.getDef());
+        if (instruction.op() == MipsOp.MULU || instruction.op() == MipsOp.DIV || instruction.op() == MipsOp.MULT) set.add(Instruction.HILO);
+        return set;
+    }
+
+    private void buildGraph() {
+        int size = nodes.size();
+        defs = new ArrayList<>(size);
+        uses = new ArrayList<>(size);
+        preds = new ArrayList<>(size);
+        succs = new ArrayList<>(size);
+        for (Instruction instruction : nodes) {
+            defs.add(getDefs(instruction));
+            uses.add(new HashSet<>(instruction.getUses()));
+            preds.add(new HashMap<>());
+            succs.add(new HashMap<>());
+        }
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i < j; i++) {
+                int lat = getLatency(i, j);
+                if (lat == 0 && j == size - 1 && nodes.get(j).isBarrier()) lat = 1;
+                if (lat > 0) {
+                    preds.get(j).put(i, lat);
+                    succs.get(i).put(j, lat);
+                }
+            }
+        }
+    }
+
+    private int getLatency(int i, int j) {
+        int lat = 0;
+        for (String reg : defs.get(i)) {
+            if (uses.get(j).contains(reg)) {
+                lat = Math.max(lat, reg.equals(Instruction.HILO) || nodes.get(i).op() == MipsOp.LW ? latency.of(nodes.get(i).op()) : 1);
+            }
+            if (defs.get(j).contains(reg)) lat = Math.max(lat, 1);
+        }
+        for (String reg : uses.get(i)) {
+            if (defs.get(j).contains(reg)) lat = Math.max(lat, 1);
+        }
+        if (lat == 0 && conflicts(i, j)) lat = 1;
+        return lat;
+    }
+
+    private boolean conflicts(int i, int j) {
+        Instruction a = nodes.get(i);
+        Instruction b = nodes.get(j);
+        if (!a.isMemory() || !b.isMemory() || (a.op() == MipsOp.LW && b.op() == MipsOp.LW)) return false;
+        if (a.label() != null && b.label() != null) return a.sameAddress(b);
+        if (a.label() != null || b.label() != null) {
+            String base = a.label() != null ? b.rs() : a.rs();
+            return !base.equals("$sp");
+        }
+        if (!a.rs().equals(b.rs()) || a.imm() == b.imm()) return true;
+        for (int k = i + 1; k < j; k++) {
+            if (defs.get(k).contains(a.rs())) return true;
+        }
+        return false;
+    }
+
+    private ArrayList<Integer> listSchedule() {
+        int size = nodes.size();
+        int[] height = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            height[i] = 1;
+            for (Map.Entry<Integer, Integer> entry : succs.get(i).entrySet()) {
+                height[i] = Math.max(height[i], entry.getValue() + height[entry.getKey()]);
+            }
+        }
+        int[] remaining = new int[size];
+        int[] earliest = new int[size];
+        TreeSet<Integer> ready = new TreeSet<>();
+        for (int i = 0; i < size; i++) {
+            remaining[i] = preds.get(i).size();
+            if (remaining[i] == 0) ready.add(i);
+        }
+        ArrayList<Integer> order = new ArrayList<>(size);
+        int cycle = 0;
+        while (!ready.isEmpty()) {
+            int best = -1;
+            for (int i : ready) {
+                if (best < 0 || better(i, best, cycle, earliest, height)) best = i;
+            }
+            ready.remove(best);
+            order.add(best);
+            cycle = Math.max(cycle, earliest[best]) + 1;
+            for (Map.Entry<Integer, Integer> entry : succs.get(best).entrySet()) {
+                int next = entry.getKey();
+                earliest[next] = Math.max(earliest[next], cycle - 1 + entry.getValue());
+                if (--remaining[next] == 0) ready.add(next);
+            }
+        }
+        return order;
+    }
+
+    private boolean better(int i, int best, int cycle, int[] earliest, int[] height) {
+        int start = Math.max(cycle, earliest[i]);
+        int bestStart = Math.max(cycle, earliest[best]);
+        if (start != bestStart) return start < bestStart;
+        return height[i] > height[best];
+    }
+
+    private int cycles(List<Integer> order) {
+        int[] time = new int[nodes.size()];
+        int cycle = 0;
+        for (int index : order) {
+            int start = cycle;
+            for (Map.Entry<Integer, Integer> entry : preds.get(index).entrySet()) {
+                start = Math.max(start, time[entry.getKey()] + entry.getValue());
+            }
+            time[index] = start;
+            cycle = start + 1;
+        }
+        return cycle;
+    }
+
+    private int fillDelaySlot(ArrayList<Integer> order) {
+        int branch = nodes.size() - 1;
+        for (int k = order.size() - 1; k >= 0; k--) {
+            int index = order.get(k);
+            if (succs.get(index).keySet().equals(Set.of(branch)) && independent(index, branch)) {
+                order.remove(k);
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private boolean independent(int i, int j) {
+        return Collections.disjoint(defs.get(i), uses.get(j)) && Collections.disjoint(defs.get(i), defs.get(j)) && Collections.disjoint(uses.get(i), defs.get(j));
+    }
+}
@@ -1,40 +1,36 @@
 package backend.utils;
 
+import backend.config.*;
+import backend.data.*;
+
+import java.util.*;
+
 public class Calculate {
-    public static int getRes(String op, String arg1, String arg2) {
-        int val1 = Integer.parseInt(arg1);
-        int val2 = Integer.parseInt(arg2);
+    public static int getRes(OpType op, int val1, int val2) {
         return switch (op) {
-            case "addu" -> val1 + val2;
-            case "subu" -> val1 - val2;
-            case "mulu" -> val1 * val2;
-            case "div" -> val1 / val2;
-            case "mod" -> val1 % val2;
-            case "slt" -> (val1 < val2) ? 1 : 0;
-            case "sgt" -> (val1 > val2) ? 1 : 0;
-            case "sle" -> (val1 <= val2) ? 1 : 0;
-            case "sge" -> (val1 >= val2) ? 1 : 0;
-            case "seq" -> (val1 == val2) ? 1 : 0;
-            case "sne" -> (val1 != val2) ? 1 : 0;
-            case "sllv" -> val1 << val2;
-            case "srav" -> val1 >> val2;
-            case "srlv" -> val1 >>> val2;
-            case "and" -> val1 & val2;
+            case ADDU -> val1 + val2;
+            case SUBU -> val1 - val2;
+            case MULU -> val1 * val2;
+            case DIV -> val1 / val2;
+            case MOD -> val1 % val2;
+            case SLT -> (val1 < val2) ? 1 : 0;
+            case SGT -> (val1 > val2) ? 1 : 0;
+            case SLE -> (val1 <= val2) ? 1 : 0;
+            case SGE -> (val1 >= val2) ? 1 : 0;
+            case SEQ -> (val1 == val2) ? 1 : 0;
+            case SNE -> (val1 != val2) ? 1 : 0;
+            case SLLV -> val1 << val2;
+            case SRAV -> val1 >> val2;
+            case SRLV -> val1 >>> val2;
+            case AND -> val1 & val2;
+            case MULHI -> (int) (((long) val1 * val2) >> 32);
             default -> 0;
         };
     }
 
-    public static boolean canCalculate(String op) {
-        return op.equals("addu") || op.equals("subu") || op.equals("mulu") || op.equals("div") || op.equals("mod") || op.equals("slt") || op.equals("sgt") || op.equals("sle") || op.equals("sge") || op.equals("seq") || op.equals("sne") || op.equals("sllv") || op.equals("srav") || op.equals("srlv") || op.equals("and");
-    }
-
-    public static boolean isNumber(String str) {
-        return str.matches("^-?[0-9]+$");
-    }
-
-    public static int getPower(String str) {
-        if (isNumber(str)) {
-            int n = Integer.parseInt(str);
+    public static int getPower(Operand operand) {
+        if (operand.isImmediate()) {
+            int n = operand.getValue();
             if (n > 0 && (n & (n - 1)) == 0) {
                 return Integer.numberOfTrailingZeros(n);
             }
@@ -42,19 +38,70 @@ public class Calculate {
         return -1;
     }
 
-    public static boolean canSwap(String op) {
-        return op.equals("addu") || op.equals("seq") || op.equals("mulu") || op.equals("sne") || op.equals("and");
+    public static boolean isValue(Operand operand, int value) {
+        return operand.isImmediate() && operand.getValue() == value;
     }
 
-    public static String change(String op) {
+    public static String change(OpType op) {
         return switch (op) {
-            case "sllv" -> "sll";
-            case "srav" -> "sra";
-            case "srlv" -> "srl";
-            case "and" -> "andi";
-            case "slt" -> "slti";
-            case "mod" -> null;
-            default -> op;
+            case SLLV -> "sll";
+            case SRAV -> "sra";
+            case SRLV -> "srl";
+            case AND -> "andi";
+            case SLT -> "slti";
+            case MOD, MULHI -> null;
+            default -> op.toString();
         };
     }
-}
\ No newline at end of file
+
+    public static int getCost(OpType op) {
+        return switch (op) {
+            case DIV -> MipsOp.DIV.getCost() + MipsOp.MFLO.getCost();
+            case MOD -> MipsOp.DIV.getCost() + MipsOp.MFHI.getCost();
+            case MULHI -> MipsOp.MULT.getCost() + MipsOp.MFHI.getCost();
+            default -> MipsOp.of(op.toString()) != null ? MipsOp.of(op.toString()).getCost() : 1;
+        };
+    }
+
+    public static int[] getMagic(int d) {
+        long two31 = 0x80000000L;
+        long ad = Math.abs((long) d);
+        long t = two31 + ((d & 0xFFFFFFFFL) >>> 31);
+        long anc = t - 1 - t % ad;
+        int p = 31;
+        long q1 = two31 / anc, r1 = two31 - q1 * anc;
+        long q2 = two31 / ad, r2 = two31 - q2 * ad;
+        long delta;
+        do {
+            p++;
+            q1 = 2 * q1;
+            r1 = 2 * r1;
+            if (r1 >= anc) {
+                q1++;
+                r1 -= anc;
+            }
+            q2 = 2 * q2;
+            r2 = 2 * r2;
+            if (r2 >= ad) {
+                q2++;
+                r2 -= ad;
+            }
+            delta = ad - r2;
+        } while (q1 < delta || (q1 == delta && r1 == 0));
+        int magic = (int) (q2 + 1);
+        return new int[]{d < 0 ? -magic : magic, p - 32};
+    }
+
+    public static List<int[]> getSignedDigits(int c) {
+        ArrayList<int[]> digits = new ArrayList<>();
+        long n = c & 0xFFFFFFFFL;
+        for (int k = 0; n != 0 && k < 32; k++, n >>= 1) {
+            if ((n & 1) == 0) continue;
+            int digit = (n & 3) == 3 ? -1 : 1;
+            digits.add(new int[]{k, digit});
+            n -= digit;
+        }
+        Collections.reverse(digits);
+        return digits;
+    }
+}
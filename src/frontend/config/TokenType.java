@@ -1,5 +1,6 @@
 package frontend.config;
 
+import java.util.*;
 import java.util.regex.*;
 
 public enum TokenType {
@@ -43,16 +44,33 @@ public enum TokenType {
     IDENFR(false, "[_A-Za-z][_A-Za-z0-9]*"),
     STRCON(false, "\\\"[^\\\"]*\\\"");
 
+    private static final HashMap<String, TokenType> keywords = new HashMap<>();
+
+    static {
+        for (TokenType tokenType : values()) {
+            if (tokenType.keyword != null) {
+                keywords.put(tokenType.keyword, tokenType);
+            }
+        }
+    }
+
     private final Pattern pattern;
+    private final String keyword;
 
     TokenType(boolean fullMatch, String patternString) {
         if (fullMatch) {
             this.pattern = Pattern.compile("^" + patternString + "(?![_A-Za-z0-9])");
+            this.keyword = patternString;
         } else {
             this.pattern = Pattern.compile("^" + patternString);
+            this.keyword = null;
         }
     }
 
+    public static TokenType getKeyword(String word) {
+        return keywords.getOrDefault(word, IDENFR);
+    }
+
     public Pattern getPattern() {
         return this.pattern;
     }
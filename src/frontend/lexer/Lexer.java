@@ -3,39 +3,59 @@ package frontend.lexer;
 import frontend.config.*;
 import frontend.data.*;
 
-import java.util.*;
+import java.nio.*;
 import java.util.regex.*;
 
 public class Lexer {
     private final Reader reader;
+    private final Mode mode;
+    private final boolean keepTokens;
     private final TokenList tokenList = new TokenList();
     private final ErrorList errorList = new ErrorList();
 
-    public Lexer(ArrayList<String> lines) {
-        this.reader = new Reader(lines);
+    public Lexer(CharBuffer source) {
+        this(source, Mode.dfa, true);
+    }
+
+    public Lexer(CharBuffer source, Mode mode, boolean keepTokens) {
+        this.reader = new Reader(source);
+        this.mode = mode;
+        this.keepTokens = keepTokens;
     }
 
     public TokenList tokenizer() {
         while (!this.reader.endOfFile()) {
+            nextToken();
+        }
+        return tokenList;
+    }
+
+    public Token nextToken() {
+        Token token = null;
+        while (token == null && !this.reader.endOfFile()) {
             reader.skip();
-            if (isComment()) {
-                continue;
+            if (mode == Mode.dfa) {
+                token = scanToken();
+            } else if (!isComment()) {
+                token = matchToken();
             }
-            addToken();
         }
-        return tokenList;
+        if (token != null && keepTokens) {
+            tokenList.addToken(token);
+        }
+        return token;
     }
 
     private boolean isComment() {
-        if (this.reader.peekStr(2).equals("//")) {
+        if (this.reader.peekChar(0) == '/' && this.reader.peekChar(1) == '/') {
             this.reader.nextLine();
             return true;
-        } else if (this.reader.peekStr(2).equals("/*")) {
+        } else if (this.reader.peekChar(0) == '/' && this.reader.peekChar(1) == '*') {
             reader.consume(2);
-            while (!this.reader.endOfFile() && !this.reader.peekStr(2).equals("*/")) {
+            while (!this.reader.endOfFile() && !(this.reader.peekChar(0) == '*' && this.reader.peekChar(1) == '/')) {
                 this.reader.consume(1);
             }
-            if (this.reader.peekStr(2).equals("*/")) {
+            if (this.reader.peekChar(0) == '*' && this.reader.peekChar(1) == '/') {
                 this.reader.consume(2);
                 return true;
             }
@@ -43,26 +63,132 @@ public class Lexer {
         return false;
     }
 
-    private void addToken() {
+    private Token matchToken() {
         for (TokenType tokenType : TokenType.values()) {
             Pattern pattern = tokenType.getPattern();
             String tokenString = this.reader.matchStr(pattern);
             if (tokenString != null) {
                 Token token = new Token(tokenType, reader.getLineIndex(), tokenString);
                 this.reader.consume(tokenString.length());
-                this.tokenList.addToken(token);
-                return;
+                return token;
             }
         }
+        return skipIllegal();
+    }
+
+    private Token scanToken() {
+        if (reader.endOfFile()) {
+            return null;
+        }
+        char c = reader.peekChar(0);
+        char next = reader.peekChar(1);
+        return switch (c) {
+            case '/' -> {
+                if (next == '/') {
+                    reader.nextLine();
+                    yield null;
+                } else if (next == '*') {
+                    skipBlockComment();
+                    yield null;
+                }
+                yield newToken(TokenType.DIV, 1);
+            }
+            case '&' -> next == '&' ? newToken(TokenType.AND, 2) : skipIllegal();
+            case '|' -> next == '|' ? newToken(TokenType.OR, 2) : skipIllegal();
+            case '<' -> newToken(next == '=' ? TokenType.LEQ : TokenType.LSS, next == '=' ? 2 : 1);
+            case '>' -> newToken(next == '=' ? TokenType.GEQ : TokenType.GRE, next == '=' ? 2 : 1);
+            case '=' -> newToken(next == '=' ? TokenType.EQL : TokenType.ASSIGN, next == '=' ? 2 : 1);
+            case '!' -> newToken(next == '=' ? TokenType.NEQ : TokenType.NOT, next == '=' ? 2 : 1);
+            case '+' -> newToken(TokenType.PLUS, 1);
+            case '-' -> newToken(TokenType.MINU, 1);
+            case '*' -> newToken(TokenType.MULT, 1);
+            case '%' -> newToken(TokenType.MOD, 1);
+            case ';' -> newToken(TokenType.SEMICN, 1);
+            case ',' -> newToken(TokenType.COMMA, 1);
+            case '(' -> newToken(TokenType.LPARENT, 1);
+            case ')' -> newToken(TokenType.RPARENT, 1);
+            case '[' -> newToken(TokenType.LBRACK, 1);
+            case ']' -> newToken(TokenType.RBRACK, 1);
+            case '{' -> newToken(TokenType.LBRACE, 1);
+            case '}' -> newToken(TokenType.RBRACE, 1);
+            case '"' -> {
+                int len = 1;
+                while (reader.peekChar(len) != '"' && reader.peekChar(len) != '\n') {
+                    len++;
+                }
+                yield reader.peekChar(len) == '"' ? newToken(TokenType.STRCON, len + 1) : skipIllegal();
+            }
+            default -> {
+                if (isDigit(c)) {
+                    int len = 1;
+                    while (isDigit(reader.peekChar(len))) {
+                        len++;
+                    }
+                    yield newToken(TokenType.INTCON, len);
+                } else if (isIdentStart(c)) {
+                    int len = 1;
+                    while (isIdentStart(reader.peekChar(len)) || isDigit(reader.peekChar(len))) {
+                        len++;
+                    }
+                    String word = reader.peekStr(len);
+                    Token token = new Token(TokenType.getKeyword(word), reader.getLineIndex(), word);
+                    reader.consume(len);
+                    yield token;
+                }
+                yield skipIllegal();
+            }
+        };
+    }
+
+    private Token newToken(TokenType tokenType, int len) {
+        Token token = new Token(tokenType, reader.getLineIndex(), reader.peekStr(len));
+        reader.consume(len);
+        return token;
+    }
+
+    private void skipBlockComment() {
+        reader.consume(2);
+        while (!reader.endOfFile() && !(reader.peekChar(0) == '*' && reader.peekChar(1) == '/')) {
+            reader.consume(1);
+        }
+        reader.consume(2);
+    }
+
+    private Token skipIllegal() {
+        Token token = null;
         if (!reader.endOfFile()) {
             errorList.addError(reader.getLineIndex(), ErrorType.ILLEGAL_CHAR);
-            if (reader.peekStr(1).equals("|")) {
-                tokenList.addToken(new Token(TokenType.OR, reader.getLineIndex(), "||"));
-            } else if (reader.peekStr(1).equals("&")) {
-                tokenList.addToken(new Token(TokenType.AND, reader.getLineIndex(), "&&"));
+            if (reader.peekChar(0) == '|') {
+                token = new Token(TokenType.OR, reader.getLineIndex(), "||");
+            } else if (reader.peekChar(0) == '&') {
+                token = new Token(TokenType.AND, reader.getLineIndex(), "&&");
             }
             reader.consume(1);
         }
+        return token;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentStart(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    public static String getTimingReport(CharBuffer source, int rounds) {
+        StringBuilder sb = new StringBuilder();
+        for (Mode mode : Mode.values()) {
+            int tokens = 0;
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                tokens = new Lexer(source.duplicate(), mode, true).tokenizer().length();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            sb.append(String.format("%-40s %6d tokens %10.3f ms%n", mode, tokens, best / 1e6));
+        }
+        return sb.toString();
     }
 
     public TokenList getTokenList() {
@@ -72,4 +198,6 @@ public class Lexer {
     public ErrorList getErrorList() {
         return errorList;
     }
+
+    public enum Mode {regex, dfa}
 }
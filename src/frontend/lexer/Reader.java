@@ -1,54 +1,82 @@
 package frontend.lexer;
 
+import java.nio.*;
 import java.util.*;
 import java.util.regex.*;
 
 public class Reader {
-    private final ArrayList<String> lines;
+    private final char[] source;
+    private final int length;
+    private final CharBuffer buffer;
+    private final int[] lineStarts;
+    private int pos = 0;
     private int lineIndex = 0;
-    private int columnIndex = 0;
+    private int lineEnd;
 
-    public Reader(ArrayList<String> lines) {
-        this.lines = lines;
+    public Reader(CharBuffer buffer) {
+        this(buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0 ? buffer.array() : copyOf(buffer), buffer.remaining());
+    }
+
+    public Reader(char[] source, int length) {
+        this.source = source;
+        this.length = length;
+        this.buffer = CharBuffer.wrap(source, 0, length);
+        int lines = 0;
+        for (int i = 0; i < length; i++) {
+            if (source[i] == '\n') {
+                lines++;
+            }
+        }
+        this.lineStarts = new int[lines + 1];
+        for (int i = 0, line = 1; i < length; i++) {
+            if (source[i] == '\n') {
+                lineStarts[line++] = i + 1;
+            }
+        }
+        locate();
+    }
+
+    private static char[] copyOf(CharBuffer buffer) {
+        char[] chars = new char[buffer.remaining()];
+        buffer.duplicate().get(chars);
+        return chars;
+    }
+
+    private void locate() {
+        int index = Arrays.binarySearch(lineStarts, pos);
+        lineIndex = index >= 0 ? index : -index - 2;
+        lineEnd = lineIndex + 1 < lineStarts.length ? lineStarts[lineIndex + 1] - 1 : length;
     }
 
     public boolean endOfFile() {
-        return this.lineIndex >= this.lines.size();
+        return this.pos >= this.length;
     }
 
     public boolean endOfLine() {
-        if (endOfFile()) {
-            return true;
-        }
-        return this.columnIndex >= this.lines.get(lineIndex).length();
+        return this.pos >= this.lineEnd;
     }
 
-    public String peekLine() {
-        if (endOfFile()) {
-            return "";
+    public char peekChar() {
+        if (endOfLine()) {
+            return '\n';
         } else {
-            return this.lines.get(lineIndex);
+            return source[pos];
         }
     }
 
-    public char peekChar() {
-        if (endOfLine()) {
-            return '\n';
-        } else if (endOfFile()) {
+    public char peekChar(int offset) {
+        if (endOfFile()) {
             return 0;
-        } else {
-            return peekLine().charAt(columnIndex);
         }
+        int index = this.pos + offset;
+        return index < lineEnd ? source[index] : '\n';
     }
 
     public String peekStr(int len) {
         if (endOfFile()) {
             return "";
-        } else if (this.columnIndex + len >= peekLine().length()) {
-            return peekLine().substring(this.columnIndex);
-        } else {
-            return peekLine().substring(this.columnIndex, this.columnIndex + len);
         }
+        return new String(source, pos, Math.min(len, lineEnd - pos));
     }
 
     public void skip() {
@@ -58,38 +86,24 @@ public class Reader {
     }
 
     public void consume(int steps) {
-        int count = steps;
-        while (!endOfFile() && count > 0) {
-            int len = peekLine().length();
-            if (columnIndex + count >= len) {
-                lineIndex++;
-                count -= (len - columnIndex + 1);
-                columnIndex = 0;
-            } else {
-                columnIndex += count;
-                count = 0;
-            }
+        pos = Math.min(pos + steps, length);
+        if (pos > lineEnd) {
+            locate();
         }
     }
 
     public void nextLine() {
         if (!endOfFile()) {
-            lineIndex++;
-            columnIndex = 0;
-        }
-    }
-
-    public String getRemain() {
-        if (endOfFile() || endOfLine()) {
-            return "";
-        } else {
-            return peekLine().substring(columnIndex);
+            consume(lineEnd - pos + 1);
         }
     }
 
     public String matchStr(Pattern pattern) {
-        String remain = getRemain();
-        Matcher matcher = pattern.matcher(remain);
+        if (endOfLine()) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(buffer);
+        matcher.region(pos, lineEnd);
         if (matcher.find()) {
             return matcher.group(0);
         } else {
@@ -9,6 +9,7 @@ import frontend.lexer.*;
 import java.util.*;
 
 public class Parser {
+    private static final int lookahead = 3;
     private final Reader reader;
     private final ErrorList errorList = new ErrorList();
 
@@ -16,6 +17,10 @@ public class Parser {
         this.reader = new Reader(tokenList);
     }
 
+    public Parser(Lexer lexer) {
+        this.reader = new Reader(lexer, lookahead);
+    }
+
     // CompUnit → {Decl} {FuncDef} MainFuncDef
     public CompUnit parseCompUnit() {
         ArrayList<Decl> decls = parseDecls();
@@ -269,7 +274,11 @@ public class Parser {
         reader.consume(TokenType.LBRACE);
         ArrayList<BlockItem> blockItems = new ArrayList<>();
         while (reader.peek(0).type() != TokenType.RBRACE) {
+            Token start = reader.peek(0);
             blockItems.add(parseBlockItem());
+            if (reader.peek(0) == start) {
+                reader.consume(start.type());
+            }
         }
         Token t = reader.peek(0);
         reader.consume(TokenType.RBRACE);
@@ -325,11 +334,9 @@ public class Parser {
                 yield new Stmt(t1);
             }
             default -> {
-                Stmt.StmtType stmtType = getStmtType();
-                if (stmtType == null) {
-                    yield null;
-                } else if (stmtType == Stmt.StmtType.LVal) {
-                    yield parseLvalStmt();
+                LVal lVal = parseAssignTarget();
+                if (lVal != null) {
+                    yield parseLvalStmt(lVal);
                 } else {
                     yield new Stmt(parseExpEnd());
                 }
@@ -337,31 +344,29 @@ public class Parser {
         };
     }
 
-    private Stmt parseLvalStmt() {
-        LVal lVal = parseLVal();
-        if (reader.peek(0).type() == TokenType.ASSIGN) {
-            reader.consume(TokenType.ASSIGN);
-            Exp exp = parseExp();
-            consumeError(TokenType.SEMICN);
-            return new Stmt(lVal, exp);
-        }
-        return null;
+    private Stmt parseLvalStmt(LVal lVal) {
+        reader.consume(TokenType.ASSIGN);
+        Exp exp = parseExp();
+        consumeError(TokenType.SEMICN);
+        return new Stmt(lVal, exp);
     }
 
-    private Stmt.StmtType getStmtType() {
-        int id = 0;
-        Stmt.StmtType stmtType = null;
-        while (reader.peek(id) != null) {
-            if (reader.peek(id).type() == TokenType.ASSIGN) {
-                stmtType = Stmt.StmtType.LVal;
-                break;
-            } else if (reader.peek(id).type() == TokenType.SEMICN) {
-                stmtType = Stmt.StmtType.Exp;
-                break;
-            }
-            id += 1;
+    private LVal parseAssignTarget() {
+        if (reader.peek(0).type() == TokenType.ASSIGN) {
+            return parseLVal();
         }
-        return stmtType;
+        Token t2 = reader.peek(1);
+        if (reader.peek(0).type() != TokenType.IDENFR || (t2 != null && t2.type() == TokenType.LPARENT)) {
+            return null;
+        }
+        int mark = reader.mark();
+        LVal lVal = parseLVal();
+        if (reader.notEnd() && reader.peek(0).type() == TokenType.ASSIGN) {
+            reader.release();
+            return lVal;
+        }
+        reader.reset(mark);
+        return null;
     }
 
     private Stmt parseIfStmt() {
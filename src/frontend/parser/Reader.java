@@ -6,23 +6,89 @@ import frontend.lexer.*;
 
 public class Reader {
     private final TokenList tokenList;
+    private final Lexer lexer;
+    private Token[] window;
+    private int filled = 0;
+    private Token previous;
     private int pos = 0;
+    private int marked = -1;
+    private Token markedPrevious;
 
     public Reader(TokenList tokenList) {
         this.tokenList = tokenList;
+        this.lexer = null;
+    }
+
+    public Reader(Lexer lexer, int lookahead) {
+        this.tokenList = null;
+        this.lexer = lexer;
+        this.window = new Token[Integer.highestOneBit(Math.max(lookahead, 2) - 1) << 1];
     }
 
     public void consume(TokenType type) {
         if (notEnd() && type == peek(0).type()) {
+            previous = peek(0);
             pos += 1;
         }
     }
 
     public Token peek(int steps) {
-        if (pos + steps >= tokenList.length() || pos + steps < 0) {
+        if (steps == -1) {
+            return previous;
+        }
+        if (tokenList != null) {
+            if (pos + steps >= tokenList.length() || pos + steps < 0) {
+                return null;
+            }
+            return tokenList.getToken(pos + steps);
+        }
+        if (steps < 0 || !fill(pos + steps + 1)) {
             return null;
         }
-        return tokenList.getToken(pos + steps);
+        return window[(pos + steps) & (window.length - 1)];
+    }
+
+    private boolean fill(int end) {
+        while (filled < end) {
+            Token token = lexer.nextToken();
+            if (token == null) {
+                return false;
+            }
+            if (filled - base() == window.length) {
+                grow();
+            }
+            window[filled & (window.length - 1)] = token;
+            filled++;
+        }
+        return true;
+    }
+
+    private void grow() {
+        Token[] larger = new Token[window.length << 1];
+        for (int i = base(); i < filled; i++) {
+            larger[i & (larger.length - 1)] = window[i & (window.length - 1)];
+        }
+        window = larger;
+    }
+
+    private int base() {
+        return marked >= 0 ? marked : pos;
+    }
+
+    public int mark() {
+        marked = pos;
+        markedPrevious = previous;
+        return marked;
+    }
+
+    public void reset(int mark) {
+        pos = mark;
+        previous = markedPrevious;
+        marked = -1;
+    }
+
+    public void release() {
+        marked = -1;
     }
 
     public int getLineIndex() {
@@ -30,6 +96,6 @@ public class Reader {
     }
 
     public boolean notEnd() {
-        return pos < tokenList.length();
+        return peek(0) != null;
     }
 }
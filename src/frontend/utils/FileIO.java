@@ -1,21 +1,59 @@
 package frontend.utils;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
 import java.util.*;
 
 public class FileIO {
     private FileIO() {
     }
 
-    public static ArrayList<String> readlines(String path) throws IOException {
-        ArrayList<String> lines = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(path)))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
+    public static CharBuffer readchars(String path) throws IOException {
+        CharBuffer decoded;
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CharsetDecoder decoder = Charset.defaultCharset().newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            decoded = CharBuffer.wrap(new char[(int) Math.ceil(mapped.remaining() * (double) decoder.maxCharsPerByte()) + 1]);
+            CoderResult result;
+            do {
+                result = decoder.decode(mapped, decoded, true);
+                if (result.isUnderflow()) {
+                    result = decoder.flush(decoded);
+                }
+                if (result.isOverflow()) {
+                    decoded = grow(decoded);
+                }
+            } while (result.isOverflow());
+        }
+        char[] chars = decoded.array();
+        int end = decoded.position();
+        int len = 0;
+        for (int i = 0; i < end; i++) {
+            char c = chars[i];
+            if (c == '\r') {
+                if (i + 1 < end && chars[i + 1] == '\n') {
+                    i++;
+                }
+                c = '\n';
+            }
+            chars[len++] = c;
+        }
+        if (len > 0 && chars[len - 1] != '\n') {
+            if (len == chars.length) {
+                chars = grow(decoded).array();
             }
+            chars[len++] = '\n';
         }
-        return lines;
+        return CharBuffer.wrap(chars, 0, len);
+    }
+
+    private static CharBuffer grow(CharBuffer buffer) {
+        CharBuffer grown = CharBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.capacity() * 2 + 1));
+        grown.position(buffer.position());
+        return grown;
     }
 
     public static void writefile(String path, String content) throws IOException {
@@ -0,0 +1,16 @@
+package optimize;
+
+import java.util.*;
+
+public enum Analysis {
+    CFG, USE_DEF, LIVENESS, REACHING_DEFINITIONS, DOMINATORS, LOOPS;
+
+    public EnumSet<Analysis> getDependencies() {
+        return switch (this) {
+            case CFG -> EnumSet.noneOf(Analysis.class);
+            case USE_DEF, REACHING_DEFINITIONS, DOMINATORS -> EnumSet.of(CFG);
+            case LIVENESS -> EnumSet.of(CFG, USE_DEF);
+            case LOOPS -> EnumSet.of(CFG, DOMINATORS);
+        };
+    }
+}
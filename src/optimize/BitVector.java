@@ -0,0 +1,101 @@
+package optimize;
+
+import java.util.*;
+
+public class BitVector {
+    private final long[] words;
+
+    public BitVector(int size) {
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    private BitVector(long[] words) {
+        this.words = words;
+    }
+
+    public static BitVector full(int size) {
+        BitVector vector = new BitVector(size);
+        Arrays.fill(vector.words, -1L);
+        if ((size & 63) != 0) {
+            vector.words[vector.words.length - 1] = (1L << size) - 1;
+        }
+        return vector;
+    }
+
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void set(int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    public void clear(int index) {
+        words[index >>> 6] &= ~(1L << index);
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    public void assign(BitVector other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    public void or(BitVector other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    public void and(BitVector other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+    }
+
+    public void andNot(BitVector other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    public boolean intersects(BitVector other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.words[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    public int nextSetBit(int from) {
+        int i = from >>> 6;
+        if (i >= words.length) return -1;
+        long word = words[i] & (-1L << from);
+        while (true) {
+            if (word != 0) return (i << 6) + Long.numberOfTrailingZeros(word);
+            if (++i == words.length) return -1;
+            word = words[i];
+        }
+    }
+
+    public BitVector copy() {
+        return new BitVector(words.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BitVector other && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
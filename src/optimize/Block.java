@@ -1,7 +1,7 @@
 package optimize;
 
+import backend.config.*;
 import backend.data.*;
-import backend.utils.*;
 
 import java.util.*;
 
@@ -10,6 +10,8 @@ public class Block {
     private final IrList irList;
     private final ArrayList<Block> nexts = new ArrayList<>();
     private final ArrayList<Block> prevs = new ArrayList<>();
+    private final ArrayList<Phi> phis = new ArrayList<>();
+    private int nodeCounter = 0;
 
     public Block(IrList irList) {
         this.irList = irList;
@@ -27,6 +29,10 @@ public class Block {
         return prevs;
     }
 
+    public ArrayList<Phi> getPhis() {
+        return phis;
+    }
+
     public void addNext(Block block) {
         nexts.add(block);
     }
@@ -40,30 +46,30 @@ public class Block {
         return irList.get(irList.size() - 1);
     }
 
-    public String getLabel() {
-        if (irList.size() > 0 && irList.get(0).op().equals("label")) {
-            return irList.get(0).result();
+    public Operand getLabel() {
+        if (irList.size() > 0 && irList.getOp(0) == OpType.LABEL) {
+            return irList.getResult(0);
         }
         return null;
     }
 
-    private DAGNode getNode(String name, HashMap<String, DAGNode> varToNode, HashMap<String, DAGNode> constNodes) {
-        if (Calculate.isNumber(name)) {
+    private DAGNode getNode(Operand name, HashMap<Operand, DAGNode> varToNode, HashMap<Operand, DAGNode> constNodes) {
+        if (name.isImmediate()) {
             if (!constNodes.containsKey(name)) {
-                constNodes.put(name, new DAGNode("leaf", name, null, null));
+                constNodes.put(name, new DAGNode(++nodeCounter, null, name, null, null));
             }
             return constNodes.get(name);
         }
         if (varToNode.containsKey(name)) {
             return varToNode.get(name);
         }
-        DAGNode node = new DAGNode("leaf", name, null, null);
+        DAGNode node = new DAGNode(++nodeCounter, null, name, null, null);
         node.validVars.add(name);
         varToNode.put(name, node);
         return node;
     }
 
-    private void removeFromValid(String var, HashMap<String, DAGNode> varToNode) {
+    private void removeFromValid(Operand var, HashMap<Operand, DAGNode> varToNode) {
         if (varToNode.containsKey(var)) {
             DAGNode node = varToNode.get(var);
             node.validVars.remove(var);
@@ -71,35 +77,35 @@ public class Block {
         }
     }
 
-    public void lcse() {
-        DAGNode.ID_COUNTER = 0;
-        HashMap<String, DAGNode> varToNode = new HashMap<>();
-        HashMap<String, DAGNode> constNodes = new HashMap<>();
+    public boolean lcse(SideEffects sideEffects) {
+        nodeCounter = 0;
+        HashMap<Operand, DAGNode> varToNode = new HashMap<>();
+        HashMap<Operand, DAGNode> constNodes = new HashMap<>();
         HashMap<String, DAGNode> computedNodes = new HashMap<>();
-        ArrayList<Quadruple> newIr = new ArrayList<>();
-        for (Quadruple q : irList.getIRList()) {
-            String op = q.op();
-            String arg1 = q.arg1();
-            String arg2 = q.arg2();
-            String result = q.result();
-            if (op.equals("assign") || Calculate.canCalculate(op)) {
+        IrList newIr = new IrList(irList.size());
+        for (Quad q : irList) {
+            OpType op = q.op();
+            Operand arg1 = q.arg1();
+            Operand arg2 = q.arg2();
+            Operand result = q.result();
+            if (op == OpType.ASSIGN || op.canCalculate()) {
                 DAGNode left = getNode(arg1, varToNode, constNodes);
                 DAGNode right = null;
-                if (!op.equals("assign") && arg2 != null && !arg2.equals("_")) {
+                if (op != OpType.ASSIGN && !arg2.isNone()) {
                     right = getNode(arg2, varToNode, constNodes);
                 }
-                if (op.equals("assign")) {
+                if (op == OpType.ASSIGN) {
                     removeFromValid(result, varToNode);
                     varToNode.put(result, left);
                     left.validVars.add(result);
-                    String src = left.getRepresentVar();
+                    Operand src = left.getRepresentVar();
                     if (src == null) src = arg1;
-                    newIr.add(new Quadruple("assign", src, "_", result));
+                    newIr.add(OpType.ASSIGN, src, null, result);
 
                 } else {
                     int leftId = left.id;
                     int rightId = (right == null) ? 0 : right.id;
-                    if (Calculate.canSwap(op) && leftId > rightId) {
+                    if (op.canSwap() && leftId > rightId) {
                         int temp = leftId;
                         leftId = rightId;
                         rightId = temp;
@@ -107,61 +113,63 @@ public class Block {
                     String key = op + "," + leftId + "," + rightId;
                     DAGNode exist = computedNodes.get(key);
                     if (exist != null && exist.getRepresentVar() != null) {
-                        String src = exist.getRepresentVar();
+                        Operand src = exist.getRepresentVar();
                         removeFromValid(result, varToNode);
                         varToNode.put(result, exist);
                         exist.validVars.add(result);
-                        newIr.add(new Quadruple("assign", src, "_", result));
+                        newIr.add(OpType.ASSIGN, src, null, result);
                     } else {
-                        DAGNode newNode = new DAGNode(op, null, left, right);
+                        DAGNode newNode = new DAGNode(++nodeCounter, op, null, left, right);
                         computedNodes.put(key, newNode);
                         removeFromValid(result, varToNode);
                         varToNode.put(result, newNode);
                         newNode.validVars.add(result);
-                        String s1 = left.getRepresentVar();
+                        Operand s1 = left.getRepresentVar();
                         if (s1 == null) s1 = arg1;
-                        String s2 = (right != null) ? right.getRepresentVar() : null;
+                        Operand s2 = (right != null) ? right.getRepresentVar() : null;
                         if (s2 == null) s2 = arg2;
 
-                        newIr.add(new Quadruple(op, s1, s2, result));
+                        newIr.add(op, s1, s2, result);
                     }
                 }
             } else {
-                String newArg1 = arg1;
-                String newArg2 = arg2;
-                if (arg1 != null && !arg1.equals("_") && varToNode.containsKey(arg1)) {
-                    String r = varToNode.get(arg1).getRepresentVar();
+                Operand newArg1 = arg1;
+                Operand newArg2 = arg2;
+                if (varToNode.containsKey(arg1)) {
+                    Operand r = varToNode.get(arg1).getRepresentVar();
                     if (r != null) newArg1 = r;
                 }
-                if (arg2 != null && !arg2.equals("_") && varToNode.containsKey(arg2)) {
-                    String r = varToNode.get(arg2).getRepresentVar();
+                if (varToNode.containsKey(arg2)) {
+                    Operand r = varToNode.get(arg2).getRepresentVar();
                     if (r != null) newArg2 = r;
                 }
-                if (op.equals("call")) {
-                    Iterator<Map.Entry<String, DAGNode>> it = varToNode.entrySet().iterator();
+                if (op == OpType.CALL) {
+                    Iterator<Map.Entry<Operand, DAGNode>> it = varToNode.entrySet().iterator();
                     while (it.hasNext()) {
-                        Map.Entry<String, DAGNode> entry = it.next();
-                        String varName = entry.getKey();
-                        if (varName.startsWith("ir_idenfr_") && varName.endsWith("_1")) {
-                            entry.getValue().validVars.remove(varName);
+                        Map.Entry<Operand, DAGNode> entry = it.next();
+                        Operand var = entry.getKey();
+                        if (var.getType() == OperandType.Global && sideEffects.mayModify(q, var)) {
+                            entry.getValue().validVars.remove(var);
                             it.remove();
                         }
                     }
                 }
-                boolean definesResult = result != null && !result.equals("_") && !op.equals("store") && !op.equals("beq") && !op.equals("j") && !op.equals("label") && !op.startsWith("func") && !op.startsWith("array") && !op.equals("alloc") && !op.startsWith("print") && !op.equals("param") && !op.equals("ret");
+                boolean definesResult = !result.isNone() && (op == OpType.LOAD || op == OpType.CALL || op == OpType.GET_INT);
 
                 if (definesResult) {
-                    DAGNode leaf = new DAGNode("leaf", null, null, null);
+                    DAGNode leaf = new DAGNode(++nodeCounter, null, null, null, null);
                     removeFromValid(result, varToNode);
                     varToNode.put(result, leaf);
                     leaf.validVars.add(result);
                 }
 
-                newIr.add(new Quadruple(op, newArg1, newArg2, result));
+                newIr.add(op, newArg1, newArg2, result);
             }
         }
-        irList.getIRList().clear();
-        irList.getIRList().addAll(newIr);
+        boolean changed = !newIr.contentEquals(irList);
+        irList.clear();
+        irList.addAll(newIr);
+        return changed;
     }
 
     @Override
@@ -170,24 +178,23 @@ public class Block {
     }
 
     private static class DAGNode {
-        static int ID_COUNTER = 0;
         final int id;
-        final String op;
-        final String val;
+        final OpType op;
+        final Operand val;
         final DAGNode left;
         final DAGNode right;
-        final List<String> validVars = new ArrayList<>();
+        final List<Operand> validVars = new ArrayList<>();
 
-        public DAGNode(String op, String val, DAGNode left, DAGNode right) {
-            this.id = ++ID_COUNTER;
+        public DAGNode(int id, OpType op, Operand val, DAGNode left, DAGNode right) {
+            this.id = id;
             this.op = op;
             this.val = val;
             this.left = left;
             this.right = right;
         }
 
-        public String getRepresentVar() {
-            if ("leaf".equals(op) && val != null && Calculate.isNumber(val)) {
+        public Operand getRepresentVar() {
+            if (op == null && val != null && val.isImmediate()) {
                 return val;
             }
             if (!validVars.isEmpty()) {
@@ -200,7 +207,7 @@ public class Block {
         public String toString() {
             String l = (left == null) ? "null" : String.valueOf(left.id);
             String r = (right == null) ? "null" : String.valueOf(right.id);
-            return String.format("Node%d: %s (L:%s, R:%s)", id, op, l, r);
+            return String.format("Node%d: %s (L:%s, R:%s)", id, op == null ? "leaf" : op, l, r);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package optimize;
+
+import backend.config.*;
+import backend.data.*;
+
+import java.util.*;
+
+public class CallGraph {
+    private final LinkedHashMap<String, LinkedHashSet<String>> callees = new LinkedHashMap<>();
+    private final ArrayList<List<String>> components = new ArrayList<>();
+    private final HashSet<String> recursive = new HashSet<>();
+
+    public CallGraph(Collection<Func> funcs) {
+        for (Func func : funcs) {
+            callees.put(func.getName(), new LinkedHashSet<>());
+        }
+        for (Func func : funcs) {
+            for (Quad q : func.getIrList()) {
+                if (q.op() == OpType.CALL && callees.containsKey(q.arg1().getName())) {
+                    callees.get(func.getName()).add(q.arg1().getName());
+                }
+            }
+        }
+        HashMap<String, Integer> index = new HashMap<>();
+        HashMap<String, Integer> low = new HashMap<>();
+        Deque<String> stack = new ArrayDeque<>();
+        HashSet<String> onStack = new HashSet<>();
+        for (String root : callees.keySet()) {
+            if (!index.containsKey(root)) strongConnect(root, index, low, stack, onStack);
+        }
+    }
+
+    private void strongConnect(String name, HashMap<String, Integer> index, HashMap<String, Integer> low, Deque<String> stack, HashSet<String> onStack) {
+        index.put(name, index.size());
+        low.put(name, index.get(name));
+        stack.push(name);
+        onStack.add(name);
+        for (String callee : callees.get(name)) {
+            if (!index.containsKey(callee)) {
+                strongConnect(callee, index, low, stack, onStack);
+                low.put(name, Math.min(low.get(name), low.get(callee)));
+            } else if (onStack.contains(callee)) {
+                low.put(name, Math.min(low.get(name), index.get(callee)));
+            }
+        }
+        if (!low.get(name).equals(index.get(name))) return;
+        ArrayList<String> component = new ArrayList<>();
+        String member;
+        do {
+            member = stack.pop();
+            onStack.remove(member);
+            component.add(member);
+        } while (!member.equals(name));
+        if (component.size() > 1 || callees.get(name).contains(name)) recursive.addAll(component);
+        components.add(component);
+    }
+
+    public boolean contains(String name) {
+        return callees.containsKey(name);
+    }
+
+    public Set<String> getCallees(String name) {
+        return callees.get(name);
+    }
+
+    public List<List<String>> getBottomUpComponents() {
+        return components;
+    }
+
+    public boolean isRecursive(String name) {
+        return recursive.contains(name);
+    }
+
+    public Set<String> getReachable(String root) {
+        LinkedHashSet<String> reachable = new LinkedHashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            String name = stack.pop();
+            if (!callees.containsKey(name) || !reachable.add(name)) continue;
+            callees.get(name).forEach(stack::push);
+        }
+        return reachable;
+    }
+}
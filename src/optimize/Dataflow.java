@@ -0,0 +1,148 @@
+package optimize;
+
+import java.util.*;
+
+public class Dataflow {
+    private final List<Block> blocks;
+    private final int size;
+    private final Direction direction;
+    private final Meet meet;
+    private final HashMap<Block, Integer> index = new HashMap<>();
+    private final BitVector[] gen;
+    private final BitVector[] kill;
+    private final BitVector[] in;
+    private final BitVector[] out;
+
+    public Dataflow(List<Block> blocks, int size, Direction direction, Meet meet) {
+        this.blocks = blocks;
+        this.size = size;
+        this.direction = direction;
+        this.meet = meet;
+        this.gen = new BitVector[blocks.size()];
+        this.kill = new BitVector[blocks.size()];
+        this.in = new BitVector[blocks.size()];
+        this.out = new BitVector[blocks.size()];
+        for (int i = 0; i < blocks.size(); i++) {
+            index.put(blocks.get(i), i);
+            gen[i] = new BitVector(size);
+            kill[i] = new BitVector(size);
+        }
+    }
+
+    public void setTransfer(Block block, BitVector gen, BitVector kill) {
+        int i = index.get(block);
+        this.gen[i] = gen;
+        this.kill[i] = kill;
+    }
+
+    public Dataflow solve() {
+        int n = blocks.size();
+        int[][] preds = new int[n][];
+        int[][] succs = new int[n][];
+        for (int i = 0; i < n; i++) {
+            preds[i] = indices(blocks.get(i).getPrevs());
+            succs[i] = indices(blocks.get(i).getNexts());
+        }
+        boolean forward = direction == Direction.forward;
+        int[][] sources = forward ? preds : succs;
+        int[][] targets = forward ? succs : preds;
+        BitVector[] entry = forward ? in : out;
+        BitVector[] exit = forward ? out : in;
+        for (int i = 0; i < n; i++) {
+            entry[i] = new BitVector(size);
+            exit[i] = meet == Meet.intersection ? BitVector.full(size) : new BitVector(size);
+        }
+        int[] order = reversePostorder(succs);
+        if (!forward) {
+            for (int l = 0, r = n - 1; l < r; l++, r--) {
+                int temp = order[l];
+                order[l] = order[r];
+                order[r] = temp;
+            }
+        }
+        int[] position = new int[n];
+        for (int p = 0; p < n; p++) {
+            position[order[p]] = p;
+        }
+        BitVector pending = BitVector.full(n);
+        BitVector result = new BitVector(size);
+        for (int p = pending.nextSetBit(0); p >= 0; p = pending.nextSetBit(0)) {
+            pending.clear(p);
+            int i = order[p];
+            BitVector merged = entry[i];
+            if (sources[i].length == 0) {
+                merged.clear();
+            } else {
+                merged.assign(exit[sources[i][0]]);
+                for (int k = 1; k < sources[i].length; k++) {
+                    if (meet == Meet.union) {
+                        merged.or(exit[sources[i][k]]);
+                    } else {
+                        merged.and(exit[sources[i][k]]);
+                    }
+                }
+            }
+            result.assign(merged);
+            result.andNot(kill[i]);
+            result.or(gen[i]);
+            if (!result.equals(exit[i])) {
+                exit[i].assign(result);
+                for (int target : targets[i]) {
+                    pending.set(position[target]);
+                }
+            }
+        }
+        return this;
+    }
+
+    private int[] indices(List<Block> list) {
+        int[] result = new int[list.size()];
+        for (int k = 0; k < list.size(); k++) {
+            result[k] = index.get(list.get(k));
+        }
+        return result;
+    }
+
+    private int[] reversePostorder(int[][] succs) {
+        int n = blocks.size();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int count = n;
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        for (int root = 0; root < n; root++) {
+            if (visited[root]) continue;
+            int depth = 0;
+            stack[depth] = root;
+            next[depth] = 0;
+            visited[root] = true;
+            while (depth >= 0) {
+                int node = stack[depth];
+                if (next[depth] < succs[node].length) {
+                    int succ = succs[node][next[depth]++];
+                    if (!visited[succ]) {
+                        visited[succ] = true;
+                        stack[++depth] = succ;
+                        next[depth] = 0;
+                    }
+                } else {
+                    order[--count] = node;
+                    depth--;
+                }
+            }
+        }
+        return order;
+    }
+
+    public BitVector getIn(Block block) {
+        return in[index.get(block)];
+    }
+
+    public BitVector getOut(Block block) {
+        return out[index.get(block)];
+    }
+
+    public enum Direction {forward, backward}
+
+    public enum Meet {union, intersection}
+}
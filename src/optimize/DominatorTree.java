@@ -0,0 +1,170 @@
+package optimize;
+
+import java.util.*;
+
+public class DominatorTree {
+    private final ArrayList<Block> order = new ArrayList<>();
+    private final HashMap<Block, Integer> index = new HashMap<>();
+    private final int[] idom;
+    private final int[] pre;
+    private final int[] post;
+    private final ArrayList<ArrayList<Block>> children = new ArrayList<>();
+    private final ArrayList<LinkedHashSet<Block>> frontiers = new ArrayList<>();
+
+    public DominatorTree(List<Block> blockList) {
+        if (!blockList.isEmpty()) {
+            reversePostOrder(blockList.get(0));
+        }
+        int n = order.size();
+        idom = new int[n];
+        pre = new int[n];
+        post = new int[n];
+        computeIdoms();
+        for (int i = 0; i < n; i++) {
+            children.add(new ArrayList<>());
+            frontiers.add(new LinkedHashSet<>());
+        }
+        for (int i = 1; i < n; i++) {
+            children.get(idom[i]).add(order.get(i));
+        }
+        number();
+        computeFrontiers();
+    }
+
+    private void reversePostOrder(Block entry) {
+        HashSet<Block> visited = new HashSet<>();
+        ArrayList<Block> postOrder = new ArrayList<>();
+        Deque<Block> stack = new ArrayDeque<>();
+        Deque<Integer> edges = new ArrayDeque<>();
+        visited.add(entry);
+        stack.push(entry);
+        edges.push(0);
+        while (!stack.isEmpty()) {
+            Block block = stack.peek();
+            int edge = edges.pop();
+            if (edge < block.getNexts().size()) {
+                edges.push(edge + 1);
+                Block next = block.getNexts().get(edge);
+                if (visited.add(next)) {
+                    stack.push(next);
+                    edges.push(0);
+                }
+            } else {
+                stack.pop();
+                postOrder.add(block);
+            }
+        }
+        for (int i = postOrder.size() - 1; i >= 0; i--) {
+            index.put(postOrder.get(i), order.size());
+            order.add(postOrder.get(i));
+        }
+    }
+
+    private void computeIdoms() {
+        Arrays.fill(idom, -1);
+        if (idom.length == 0) return;
+        idom[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = 1; b < order.size(); b++) {
+                int newIdom = -1;
+                for (Block pred : order.get(b).getPrevs()) {
+                    Integer p = index.get(pred);
+                    if (p == null || idom[p] == -1) continue;
+                    newIdom = newIdom == -1 ? p : intersect(p, newIdom);
+                }
+                if (newIdom != idom[b]) {
+                    idom[b] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private int intersect(int a, int b) {
+        while (a != b) {
+            while (a > b) a = idom[a];
+            while (b > a) b = idom[b];
+        }
+        return a;
+    }
+
+    private void number() {
+        if (order.isEmpty()) return;
+        int preCounter = 0;
+        int postCounter = 0;
+        Deque<Integer> stack = new ArrayDeque<>();
+        Deque<Integer> edges = new ArrayDeque<>();
+        pre[0] = preCounter++;
+        stack.push(0);
+        edges.push(0);
+        while (!stack.isEmpty()) {
+            int b = stack.peek();
+            int edge = edges.pop();
+            if (edge < children.get(b).size()) {
+                edges.push(edge + 1);
+                int child = index.get(children.get(b).get(edge));
+                pre[child] = preCounter++;
+                stack.push(child);
+                edges.push(0);
+            } else {
+                stack.pop();
+                post[b] = postCounter++;
+            }
+        }
+    }
+
+    private void computeFrontiers() {
+        for (int b = 0; b < order.size(); b++) {
+            Block block = order.get(b);
+            ArrayList<Integer> preds = new ArrayList<>();
+            for (Block pred : block.getPrevs()) {
+                Integer p = index.get(pred);
+                if (p != null && !preds.contains(p)) preds.add(p);
+            }
+            if (preds.size() < 2) continue;
+            for (int runner : preds) {
+                while (runner != idom[b]) {
+                    frontiers.get(runner).add(block);
+                    runner = idom[runner];
+                }
+            }
+        }
+    }
+
+    public boolean contains(Block block) {
+        return index.containsKey(block);
+    }
+
+    public boolean dominates(Block a, Block b) {
+        Integer i = index.get(a);
+        Integer j = index.get(b);
+        if (i == null || j == null) return false;
+        return pre[i] <= pre[j] && post[j] <= post[i];
+    }
+
+    public boolean strictlyDominates(Block a, Block b) {
+        return a != b && dominates(a, b);
+    }
+
+    public Block getIdom(Block block) {
+        Integer i = index.get(block);
+        if (i == null || i == 0) return null;
+        return order.get(idom[i]);
+    }
+
+    public List<Block> getChildren(Block block) {
+        Integer i = index.get(block);
+        return i == null ? List.of() : children.get(i);
+    }
+
+    public Set<Block> getFrontier(Block block) {
+        Integer i = index.get(block);
+        return i == null ? Set.of() : frontiers.get(i);
+    }
+
+    public List<Block> getOrder() {
+        return order;
+    }
+}
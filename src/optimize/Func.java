@@ -1,44 +1,138 @@
 package optimize;
 
+import backend.config.*;
 import backend.data.*;
 import backend.utils.*;
 
 import java.util.*;
 
 public class Func {
-    private static int licmLabelCounter = 0;
-    private static int srTempCounter = 0;
     private final IrList irList;
+    private final String name;
+    private int licmLabelCounter = 0;
+    private int srTempCounter = 0;
+    private int treTempCounter = 0;
     private final ArrayList<Block> blockList = new ArrayList<>();
+    private final EnumSet<Analysis> valid = EnumSet.noneOf(Analysis.class);
+    private DominatorTree dominators;
+    private LinkedHashMap<Block, HashSet<Block>> loops;
+    private Ssa ssa;
+    private LazyCodeMotion lazyCodeMotion;
+    private HashMap<Operand, Integer> variables;
+    private HashMap<Block, BitVector> useMap;
+    private HashMap<Block, BitVector> defMap;
+    private Dataflow liveness;
+    private ReachingDefinitions reachingDefinitions;
+    private SideEffects sideEffects = new SideEffects();
 
     public Func(IrList irList) {
         this.irList = irList;
+        this.name = irList.getArg1(0).getName();
     }
 
     public IrList getIrList() {
         return irList;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    public ArrayList<Block> getBlockList() {
+        require(Analysis.CFG);
+        return blockList;
+    }
+
+    public SideEffects getSideEffects() {
+        return sideEffects;
+    }
+
+    public void setSideEffects(SideEffects sideEffects) {
+        this.sideEffects = sideEffects;
+    }
+
+    public DominatorTree getDominatorTree() {
+        require(Analysis.DOMINATORS);
+        return dominators;
+    }
+
+    public int getLoopDepth(Block block) {
+        require(Analysis.LOOPS);
+        int depth = 0;
+        for (HashSet<Block> loopBody : loops.values()) {
+            if (loopBody.contains(block)) depth++;
+        }
+        return depth;
+    }
+
     @Override
     public String toString() {
         return irList.toString();
     }
 
-    public void splitBlock() {
+    public void require(Analysis analysis) {
+        if (valid.contains(analysis)) return;
+        for (Analysis dependency : analysis.getDependencies()) {
+            require(dependency);
+        }
+        switch (analysis) {
+            case CFG -> {
+                if (!blockList.isEmpty()) {
+                    irList.clear();
+                    for (Block block : blockList) {
+                        irList.addAll(block.getIrList());
+                    }
+                }
+                splitBlock();
+                buildGraph();
+            }
+            case USE_DEF -> {
+                variables = new HashMap<>();
+                for (Block block : blockList) {
+                    for (Quad q : block.getIrList()) {
+                        for (Operand operand : new Operand[]{q.arg1(), q.arg2(), q.result()}) {
+                            if (operand.isVar()) variables.putIfAbsent(operand, variables.size());
+                        }
+                    }
+                }
+                useMap = new HashMap<>();
+                defMap = new HashMap<>();
+                for (Block block : blockList) {
+                    computeUseDef(block);
+                }
+            }
+            case LIVENESS -> computeLiveness();
+            case REACHING_DEFINITIONS -> reachingDefinitions = new ReachingDefinitions(blockList, sideEffects);
+            case DOMINATORS -> dominators = new DominatorTree(blockList);
+            case LOOPS -> loops = findNaturalLoops(dominators);
+        }
+        valid.add(analysis);
+    }
+
+    public void invalidate(EnumSet<Analysis> preserved) {
+        for (Analysis analysis : Analysis.values()) {
+            if (!preserved.contains(analysis) || !valid.containsAll(analysis.getDependencies())) {
+                valid.remove(analysis);
+            }
+        }
+    }
+
+    private void splitBlock() {
+        blockList.clear();
         TreeSet<Integer> index = new TreeSet<>();
-        HashSet<String> labels = new HashSet<>();
+        HashSet<Operand> labels = new HashSet<>();
         index.add(0);
         for (int i = 0; i < irList.size(); i++) {
-            String op = irList.get(i).op();
-            if (op.equals("beq") || op.equals("j") || op.equals("ret")) {
+            OpType op = irList.get(i).op();
+            if (op == OpType.BEQ || op == OpType.J || op == OpType.RET) {
                 index.add(i + 1);
             }
-            if (op.equals("label")) {
+            if (op == OpType.LABEL) {
                 labels.add(irList.get(i).result());
             }
         }
         for (int i = 0; i < irList.size(); i++) {
-            if (irList.get(i).op().equals("label") && labels.contains(irList.get(i).result())) {
+            if (irList.get(i).op() == OpType.LABEL && labels.contains(irList.get(i).result())) {
                 index.add(i);
             }
         }
@@ -49,19 +143,19 @@ public class Func {
             int r = list.get(i + 1);
             if (l >= r) continue;
             IrList temp = new IrList();
-            temp.getIRList().addAll(irList.getIRList().subList(l, r));
+            temp.addAll(irList, l, r);
             blockList.add(new Block(temp));
         }
     }
 
-    public void buildGraph() {
+    private void buildGraph() {
         for (Block b : blockList) {
             b.getNexts().clear();
             b.getPrevs().clear();
         }
-        HashMap<String, Block> labelMap = new HashMap<>();
+        HashMap<Operand, Block> labelMap = new HashMap<>();
         for (Block block : blockList) {
-            String label = block.getLabel();
+            Operand label = block.getLabel();
             if (label != null) {
                 labelMap.put(label, block);
             }
@@ -70,18 +164,18 @@ public class Func {
             Block currentBlock = blockList.get(i);
             Quadruple lastQuad = currentBlock.getLastQuad();
             if (lastQuad == null) continue;
-            String op = lastQuad.op();
-            String targetLabel = lastQuad.result();
+            OpType op = lastQuad.op();
+            Operand targetLabel = lastQuad.result();
 
             switch (op) {
-                case "j" -> {
+                case J -> {
                     if (labelMap.containsKey(targetLabel)) {
                         Block target = labelMap.get(targetLabel);
                         currentBlock.addNext(target);
                         target.addPrev(currentBlock);
                     }
                 }
-                case "beq" -> {
+                case BEQ -> {
                     if (labelMap.containsKey(targetLabel)) {
                         Block target = labelMap.get(targetLabel);
                         currentBlock.addNext(target);
@@ -93,7 +187,7 @@ public class Func {
                         next.addPrev(currentBlock);
                     }
                 }
-                case "ret" -> {
+                case RET -> {
                 }
                 default -> {
                     if (i + 1 < blockList.size()) {
@@ -106,55 +200,34 @@ public class Func {
         }
     }
 
-    private HashSet<String> collectLocalVars() {
-        HashSet<String> localVars = new HashSet<>();
-        for (Block b : blockList) {
-            for (Quadruple q : b.getIrList().getIRList()) {
-                if (q.op().equals("alloc") || q.op().equals("func_param") || q.op().equals("array_alloc")) {
-                    localVars.add(q.arg1());
-                }
-            }
-        }
-        return localVars;
-    }
-
-    private void handleCallSideEffects(String res, HashMap<String, Value> currentVars, HashSet<String> localVars) {
-        if (res != null && !res.equals("_")) {
-            currentVars.put(res, new Value(ValType.BOTTOM));
-        }
-        List<String> vars = new ArrayList<>(currentVars.keySet());
-        for (String var : vars) {
-            if (!localVars.contains(var)) {
-                currentVars.put(var, new Value(ValType.BOTTOM));
-            }
-        }
+    private Operand newSrTemp(IrList newIr) {
+        Operand temp = Operand.of(OperandType.Temp, "opt_sr_temp_" + name + "_" + (srTempCounter++));
+        newIr.add(OpType.ALLOC, temp, null, Operand.INT);
+        return temp;
     }
 
-    private String generateSrAdjustment(ArrayList<Quadruple> newIr, String arg1, int k) {
-        String t1 = "opt_sr_temp_" + (srTempCounter++);
-        newIr.add(new Quadruple("alloc", t1, null, "int"));
-        newIr.add(new Quadruple("srav", arg1, "31", t1));
+    private Operand generateSrAdjustment(IrList newIr, Operand arg1, int k) {
+        Operand t1 = newSrTemp(newIr);
+        newIr.add(OpType.SRAV, arg1, Operand.of(31), t1);
 
-        String t2 = "opt_sr_temp_" + (srTempCounter++);
-        newIr.add(new Quadruple("alloc", t2, null, "int"));
-        newIr.add(new Quadruple("srlv", t1, String.valueOf(32 - k), t2));
+        Operand t2 = newSrTemp(newIr);
+        newIr.add(OpType.SRLV, t1, Operand.of(32 - k), t2);
 
-        String t3 = "opt_sr_temp_" + (srTempCounter++);
-        newIr.add(new Quadruple("alloc", t3, null, "int"));
-        newIr.add(new Quadruple("addu", arg1, t2, t3));
+        Operand t3 = newSrTemp(newIr);
+        newIr.add(OpType.ADDU, arg1, t2, t3);
 
         return t3;
     }
 
-    public void removeDeadBlocks() {
-        if (blockList.isEmpty()) return;
+    public boolean removeDeadBlocks() {
+        if (blockList.isEmpty()) return false;
         HashSet<Block> visited = new HashSet<>();
         dfs(blockList.get(0), visited);
         ArrayList<Block> aliveBlocks = new ArrayList<>();
         for (Block block : blockList) {
             boolean hasFuncEnd = false;
-            for (Quadruple quad : block.getIrList().getIRList()) {
-                if (quad.op().equals("func_end")) {
+            for (Quad quad : block.getIrList()) {
+                if (quad.op() == OpType.FUNC_END) {
                     hasFuncEnd = true;
                     break;
                 }
@@ -163,85 +236,154 @@ public class Func {
                 aliveBlocks.add(block);
             }
         }
+        boolean changed = aliveBlocks.size() != blockList.size();
         blockList.clear();
         blockList.addAll(aliveBlocks);
-        irList.getIRList().clear();
+        irList.clear();
         for (Block block : blockList) {
             irList.addAll(block.getIrList());
         }
+        return changed;
     }
 
-    public void lcse() {
-        for (Block block : blockList) {
-            block.lcse();
+    public boolean toSsa() {
+        if (ssa == null) {
+            ssa = new Ssa(this);
         }
+        ssa.construct();
+        return true;
     }
 
-    private void dfs(Block block, HashSet<Block> visited) {
-        if (visited.contains(block)) return;
-        visited.add(block);
-        for (Block next : block.getNexts()) {
-            dfs(next, visited);
+    public boolean sparseConditionalConstantPropagation() {
+        return ssa.sparseConditionalConstantPropagation();
+    }
+
+    public boolean globalValueNumbering() {
+        return ssa.globalValueNumbering();
+    }
+
+    public boolean ssaCopyPropagation() {
+        return ssa.copyPropagation();
+    }
+
+    public boolean ssaDeadCodeElimination() {
+        return ssa.deadCodeElimination();
+    }
+
+    public boolean fromSsa() {
+        ssa.destruct();
+        irList.clear();
+        for (Block block : blockList) {
+            irList.addAll(block.getIrList());
         }
+        return true;
     }
 
-    public void loopInvariantCodeMotion() {
-        HashMap<Block, HashSet<Block>> doms = computeDominators();
-        HashMap<Block, HashSet<Block>> loops = findNaturalLoops(doms);
-        for (Map.Entry<Block, HashSet<Block>> entry : loops.entrySet()) {
-            processLoop(entry.getKey(), entry.getValue(), doms);
+    public boolean partialRedundancyElimination() {
+        if (lazyCodeMotion == null) {
+            lazyCodeMotion = new LazyCodeMotion(this);
         }
-        irList.getIRList().clear();
+        if (!lazyCodeMotion.run()) return false;
+        irList.clear();
         for (Block block : blockList) {
             irList.addAll(block.getIrList());
         }
+        return true;
     }
 
-    private HashMap<Block, HashSet<Block>> computeDominators() {
-        HashMap<Block, HashSet<Block>> doms = new HashMap<>();
-        if (blockList.isEmpty()) return doms;
-        Block startNode = blockList.get(0);
-        HashSet<Block> allBlocks = new HashSet<>(blockList);
+    public boolean lcse() {
+        boolean changed = false;
         for (Block block : blockList) {
-            if (block == startNode) {
-                HashSet<Block> s = new HashSet<>();
-                s.add(startNode);
-                doms.put(block, s);
-            } else {
-                doms.put(block, new HashSet<>(allBlocks));
-            }
+            changed |= block.lcse(sideEffects);
         }
-        boolean changed = true;
-        while (changed) {
-            changed = false;
-            for (Block block : blockList) {
-                if (block == startNode) continue;
-                HashSet<Block> newDom = null;
-                for (Block pred : block.getPrevs()) {
-                    if (doms.containsKey(pred)) {
-                        if (newDom == null) {
-                            newDom = new HashSet<>(doms.get(pred));
-                        } else {
-                            newDom.retainAll(doms.get(pred));
-                        }
-                    }
-                }
-                if (newDom == null) newDom = new HashSet<>();
-                newDom.add(block);
-                if (!newDom.equals(doms.get(block))) {
-                    doms.put(block, newDom);
-                    changed = true;
+        return changed;
+    }
+
+    public boolean tailRecursionElimination() {
+        ArrayList<Operand> formals = new ArrayList<>();
+        for (Quad q : irList) {
+            if (q.op() == OpType.FUNC_PARAM) formals.add(q.arg1());
+        }
+        Operand entry = Operand.of(OperandType.Label, "tre_entry_" + name);
+        IrList allocs = new IrList();
+        boolean changed = false;
+        for (Block block : blockList) {
+            IrList ir = block.getIrList();
+            int call = ir.size() - 2;
+            if (call < 0 || ir.getOp(call) != OpType.CALL || ir.getOp(call + 1) != OpType.RET || !ir.getArg1(call).getName().equals(name)) continue;
+            Operand ret = ir.getArg1(call + 1);
+            if (!ret.isNone() && ret != ir.getResult(call)) continue;
+            int[] owner = matchParams(ir);
+            if (owner[call] != call) continue;
+            ArrayList<Integer> params = new ArrayList<>();
+            for (int i = 0; i < call; i++) {
+                if (owner[i] == call) params.add(i);
+            }
+            boolean aliased = false;
+            for (int k = 0; k < params.size(); k++) {
+                if (ir.getArg2(params.get(k)) == Operand.ARRAY && ir.getArg1(params.get(k)) != formals.get(k)) aliased = true;
+            }
+            if (params.size() != formals.size() || aliased) continue;
+            IrList newIr = new IrList(ir.size());
+            HashMap<Operand, Operand> copies = new LinkedHashMap<>();
+            for (int i = 0; i < call; i++) {
+                if (owner[i] != call) {
+                    newIr.add(ir.getOp(i), ir.getArg1(i), ir.getArg2(i), ir.getResult(i));
+                } else if (ir.getArg2(i) == Operand.INT) {
+                    Operand temp = Operand.of(OperandType.Temp, "opt_tre_temp_" + name + "_" + (treTempCounter++));
+                    allocs.add(OpType.ALLOC, temp, null, Operand.INT);
+                    newIr.add(OpType.ASSIGN, ir.getArg1(i), null, temp);
+                    copies.put(formals.get(params.indexOf(i)), temp);
                 }
             }
+            copies.forEach((formal, temp) -> newIr.add(OpType.ASSIGN, temp, null, formal));
+            newIr.add(OpType.J, null, null, entry);
+            ir.clear();
+            ir.addAll(newIr);
+            changed = true;
+        }
+        if (!changed) return false;
+        IrList first = blockList.get(0).getIrList();
+        int index = 0;
+        while (index < first.size() && (first.getOp(index) == OpType.FUNC_BEGIN || first.getOp(index) == OpType.FUNC_PARAM || first.getOp(index) == OpType.ALLOC || first.getOp(index) == OpType.ARRAY_ALLOC)) {
+            index++;
+        }
+        for (Quad q : allocs) {
+            first.insert(index++, q);
+        }
+        first.insert(index, new Quadruple(OpType.LABEL, null, null, entry));
+        irList.clear();
+        for (Block block : blockList) {
+            irList.addAll(block.getIrList());
+        }
+        return true;
+    }
+
+    private void dfs(Block block, HashSet<Block> visited) {
+        if (visited.contains(block)) return;
+        visited.add(block);
+        for (Block next : block.getNexts()) {
+            dfs(next, visited);
         }
-        return doms;
     }
 
-    private HashMap<Block, HashSet<Block>> findNaturalLoops(HashMap<Block, HashSet<Block>> doms) {
-        HashMap<Block, HashSet<Block>> loops = new HashMap<>();
+    public boolean loopInvariantCodeMotion() {
+        boolean changed = false;
+        for (Map.Entry<Block, HashSet<Block>> entry : loops.entrySet()) {
+            changed |= processLoop(entry.getKey(), entry.getValue(), dominators);
+        }
+        irList.clear();
+        for (Block block : blockList) {
+            irList.addAll(block.getIrList());
+        }
+        return changed;
+    }
+
+    private LinkedHashMap<Block, HashSet<Block>> findNaturalLoops(DominatorTree doms) {
+        LinkedHashMap<Block, HashSet<Block>> loops = new LinkedHashMap<>();
         for (Block block : blockList) {
             for (Block next : block.getNexts()) {
-                if (doms.containsKey(block) && doms.get(block).contains(next)) {
+                if (doms.dominates(next, block)) {
                     HashSet<Block> loopBody = loops.getOrDefault(next, new HashSet<>());
                     loopBody.add(next);
                     loopBody.add(block);
@@ -263,10 +405,8 @@ public class Func {
         return loops;
     }
 
-    private void processLoop(Block header, HashSet<Block> loopBody, HashMap<Block, HashSet<Block>> doms) {
-        HashSet<String> definedInLoop = new HashSet<>();
-        HashMap<String, Integer> defCounts = new HashMap<>();
-        HashMap<String, List<Block>> useBlocks = new HashMap<>();
+    private boolean processLoop(Block header, HashSet<Block> loopBody, DominatorTree doms) {
+        HashMap<Operand, List<Block>> useBlocks = new HashMap<>();
         HashSet<Block> loopExits = new HashSet<>();
         for (Block b : loopBody) {
             for (Block next : b.getNexts()) {
@@ -275,7 +415,7 @@ public class Func {
                 }
             }
         }
-        HashSet<String> usedOutsideLoop = getStrings(loopBody);
+        HashSet<Operand> usedOutsideLoop = getUsedOutside(loopBody);
         List<Block> backEdges = new ArrayList<>();
         for (Block pred : header.getPrevs()) {
             if (loopBody.contains(pred)) {
@@ -284,19 +424,15 @@ public class Func {
         }
 
         for (Block b : loopBody) {
-            for (Quadruple q : b.getIrList().getIRList()) {
-                String res = q.result();
-                if (res != null && !res.equals("_")) {
-                    definedInLoop.add(res);
-                    defCounts.put(res, defCounts.getOrDefault(res, 0) + 1);
-                }
-                String[] args = {q.arg1(), q.arg2()};
-                for (String arg : args) {
-                    if (arg != null && !Calculate.isNumber(arg) && !arg.equals("_")) {
+            for (Quad q : b.getIrList()) {
+                Operand res = q.result();
+                Operand[] args = {q.arg1(), q.arg2()};
+                for (Operand arg : args) {
+                    if (!arg.isImmediate() && !arg.isNone()) {
                         useBlocks.computeIfAbsent(arg, k -> new ArrayList<>()).add(b);
                     }
                 }
-                if (q.op().equals("store") && res != null && !Calculate.isNumber(res) && !res.equals("_")) {
+                if (q.op() == OpType.STORE && !res.isImmediate() && !res.isNone()) {
                     useBlocks.computeIfAbsent(res, k -> new ArrayList<>()).add(b);
                 }
             }
@@ -305,32 +441,31 @@ public class Func {
         ArrayList<Quadruple> invariants = new ArrayList<>();
         HashMap<Quadruple, Block> quadToBlock = new HashMap<>();
         boolean changed = true;
-        HashSet<Quadruple> invariantSet = new HashSet<>();
+        HashSet<Operand> invariantSet = new HashSet<>();
         while (changed) {
             changed = false;
             for (Block b : loopBody) {
-                for (Quadruple q : b.getIrList().getIRList()) {
-                    if (invariantSet.contains(q)) continue;
-                    if (!canBeMoved(q)) continue;
-                    String arg1 = q.arg1();
-                    String arg2 = q.arg2();
-                    String res = q.result();
-                    boolean arg1Ok = isOperandInvariant(arg1, definedInLoop, invariantSet);
-                    boolean arg2Ok = isOperandInvariant(arg2, definedInLoop, invariantSet);
-                    boolean resOk = defCounts.getOrDefault(res, 0) == 1;
+                IrList ir = b.getIrList();
+                for (int index = 0; index < ir.size(); index++) {
+                    if (!canBeMoved(ir.getOp(index))) continue;
+                    Operand arg1 = ir.getArg1(index);
+                    Operand arg2 = ir.getArg2(index);
+                    Operand res = ir.getResult(index);
+                    if (invariantSet.contains(res)) continue;
+                    boolean arg1Ok = isOperandInvariant(arg1, b, index, loopBody, invariantSet);
+                    boolean arg2Ok = isOperandInvariant(arg2, b, index, loopBody, invariantSet);
+                    boolean resOk = countDefinitions(res, loopBody) == 1;
 
                     boolean dominatesUses = true;
-                    if (res != null && useBlocks.containsKey(res)) {
+                    if (useBlocks.containsKey(res)) {
                         for (Block useB : useBlocks.get(res)) {
-                            if (!doms.containsKey(useB) || !doms.get(useB).contains(b)) {
+                            if (!doms.dominates(b, useB)) {
                                 dominatesUses = false;
                                 break;
                             }
                             if (b == useB) {
-                                int defIdx = b.getIrList().getIRList().indexOf(q);
-                                for (int i = 0; i < defIdx; i++) {
-                                    Quadruple prev = b.getIrList().getIRList().get(i);
-                                    boolean isUse = (prev.arg1() != null && prev.arg1().equals(res)) || (prev.arg2() != null && prev.arg2().equals(res)) || (prev.op().equals("store") && prev.result().equals(res));
+                                for (int i = 0; i < index; i++) {
+                                    boolean isUse = ir.getArg1(i) == res || ir.getArg2(i) == res || (ir.getOp(i) == OpType.STORE && ir.getResult(i) == res);
                                     if (isUse) {
                                         dominatesUses = false;
                                         break;
@@ -343,16 +478,16 @@ public class Func {
 
                     boolean executesOnEveryIter = true;
                     for (Block backEdge : backEdges) {
-                        if (doms.containsKey(backEdge) && !doms.get(backEdge).contains(b)) {
+                        if (doms.contains(backEdge) && !doms.dominates(b, backEdge)) {
                             executesOnEveryIter = false;
                             break;
                         }
                     }
 
                     boolean safeToMoveOut = true;
-                    if (res != null && usedOutsideLoop.contains(res)) {
+                    if (usedOutsideLoop.contains(res)) {
                         for (Block exit : loopExits) {
-                            if (!doms.containsKey(exit) || !doms.get(exit).contains(b)) {
+                            if (!doms.dominates(b, exit)) {
                                 safeToMoveOut = false;
                                 break;
                             }
@@ -360,7 +495,8 @@ public class Func {
                     }
 
                     if (arg1Ok && arg2Ok && resOk && dominatesUses && executesOnEveryIter && safeToMoveOut) {
-                        invariantSet.add(q);
+                        Quadruple q = ir.get(index);
+                        invariantSet.add(res);
                         invariants.add(q);
                         quadToBlock.put(q, b);
                         changed = true;
@@ -368,22 +504,23 @@ public class Func {
                 }
             }
         }
-        if (invariants.isEmpty()) return;
+        if (invariants.isEmpty()) return false;
         insertPreHeaderAndMove(header, loopBody, invariants, quadToBlock);
+        return true;
     }
 
-    private HashSet<String> getStrings(HashSet<Block> loopBody) {
-        HashSet<String> usedOutsideLoop = new HashSet<>();
+    private HashSet<Operand> getUsedOutside(HashSet<Block> loopBody) {
+        HashSet<Operand> usedOutsideLoop = new HashSet<>();
         for (Block b : blockList) {
             if (loopBody.contains(b)) continue;
-            for (Quadruple q : b.getIrList().getIRList()) {
-                String[] args = {q.arg1(), q.arg2()};
-                for (String arg : args) {
-                    if (arg != null && !Calculate.isNumber(arg) && !arg.equals("_")) {
+            for (Quad q : b.getIrList()) {
+                Operand[] args = {q.arg1(), q.arg2()};
+                for (Operand arg : args) {
+                    if (!arg.isImmediate() && !arg.isNone()) {
                         usedOutsideLoop.add(arg);
                     }
                 }
-                if (q.op().equals("store") && q.result() != null && !Calculate.isNumber(q.result()) && !q.result().equals("_")) {
+                if (q.op() == OpType.STORE && !q.result().isImmediate() && !q.result().isNone()) {
                     usedOutsideLoop.add(q.result());
                 }
             }
@@ -391,36 +528,45 @@ public class Func {
         return usedOutsideLoop;
     }
 
-    private boolean canBeMoved(Quadruple q) {
-        String op = q.op();
-        return Calculate.canCalculate(op) || op.equals("assign");
+    private boolean canBeMoved(OpType op) {
+        return op.canCalculate() || op == OpType.ASSIGN;
+    }
+
+    private boolean isOperandInvariant(Operand arg, Block block, int index, HashSet<Block> loopBody, HashSet<Operand> invariantSet) {
+        if (arg.isNone()) return true;
+        if (arg.isImmediate()) return true;
+        List<ReachingDefinitions.Definition> defs = reachingDefinitions.getReaching(block, index, arg);
+        boolean definedInLoop = false;
+        for (ReachingDefinitions.Definition def : defs) {
+            if (loopBody.contains(def.block())) definedInLoop = true;
+        }
+        if (!definedInLoop) return true;
+        return defs.size() == 1 && invariantSet.contains(defs.get(0).var());
     }
 
-    private boolean isOperandInvariant(String arg, HashSet<String> definedInLoop, HashSet<Quadruple> invariantSet) {
-        if (arg == null || arg.equals("_")) return true;
-        if (Calculate.isNumber(arg)) return true;
-        if (!definedInLoop.contains(arg)) return true;
-        for (Quadruple inv : invariantSet) {
-            if (arg.equals(inv.result())) return true;
+    private int countDefinitions(Operand var, HashSet<Block> loopBody) {
+        int count = 0;
+        for (ReachingDefinitions.Definition def : reachingDefinitions.getDefinitions(var)) {
+            if (loopBody.contains(def.block())) count++;
         }
-        return false;
+        return count;
     }
 
     private void insertPreHeaderAndMove(Block header, HashSet<Block> loopBody, ArrayList<Quadruple> invariants, HashMap<Quadruple, Block> quadToBlock) {
-        String preHeaderLabel = "licm_pre_" + (licmLabelCounter++);
+        Operand preHeaderLabel = Operand.of(OperandType.Label, "licm_pre_" + name + "_" + (licmLabelCounter++));
         IrList preIr = new IrList();
-        preIr.add(new Quadruple("label", "_", "_", preHeaderLabel));
-        for (Quadruple q : invariants) {
+        preIr.add(OpType.LABEL, null, null, preHeaderLabel);
+        for (Quad q : invariants) {
             preIr.add(q);
             Block origin = quadToBlock.get(q);
-            origin.getIrList().getIRList().remove(q);
+            origin.getIrList().remove(q);
         }
-        String headerLabel = header.getLabel();
+        Operand headerLabel = header.getLabel();
         if (headerLabel == null) {
-            headerLabel = "licm_head_" + (licmLabelCounter++);
-            header.getIrList().getIRList().add(0, new Quadruple("label", "_", "_", headerLabel));
+            headerLabel = Operand.of(OperandType.Label, "licm_head_" + name + "_" + (licmLabelCounter++));
+            header.getIrList().insert(0, new Quadruple(OpType.LABEL, null, null, headerLabel));
         }
-        preIr.add(new Quadruple("j", "_", "_", headerLabel));
+        preIr.add(OpType.J, null, null, headerLabel);
         Block preHeader = new Block(preIr);
         ArrayList<Block> predsToUpdate = new ArrayList<>();
         for (Block pred : header.getPrevs()) {
@@ -431,9 +577,8 @@ public class Func {
         for (Block pred : predsToUpdate) {
             IrList list = pred.getIrList();
             for (int i = 0; i < list.size(); i++) {
-                Quadruple q = list.get(i);
-                if ((q.op().equals("j") || q.op().equals("beq")) && q.result().equals(headerLabel)) {
-                    list.getIRList().set(i, new Quadruple(q.op(), q.arg1(), q.arg2(), preHeaderLabel));
+                if ((list.getOp(i) == OpType.J || list.getOp(i) == OpType.BEQ) && list.getResult(i) == headerLabel) {
+                    list.set(i, new Quadruple(list.getOp(i), list.getArg1(i), list.getArg2(i), preHeaderLabel));
                 }
             }
             pred.getNexts().remove(header);
@@ -451,273 +596,75 @@ public class Func {
         }
     }
 
-    private Value meet(Value v1, Value v2) {
-        if (v1.type == ValType.TOP) return v2;
-        if (v2.type == ValType.TOP) return v1;
-        if (v1.type == ValType.CONST && v2.type == ValType.CONST) {
-            if (v1.val == v2.val) return v1;
-        }
-        return new Value(ValType.BOTTOM);
-    }
-
-    private Value getValue(String arg, HashMap<String, Value> state, HashSet<String> localVars) {
-        if (Calculate.isNumber(arg)) return new Value(Integer.parseInt(arg));
-
-        if (state.containsKey(arg)) {
-            return state.get(arg);
-        }
-
-        if (localVars.contains(arg)) {
-            return new Value(ValType.TOP);
-        } else {
-            return new Value(ValType.BOTTOM);
-        }
-    }
-
-    private HashMap<String, Value> mergePredecessors(Block block, HashMap<Block, HashMap<String, Value>> outStates) {
-        HashMap<String, Value> inState = new HashMap<>();
-        if (block.getPrevs().isEmpty()) {
-            return inState;
-        }
-        HashSet<String> allVars = new HashSet<>();
-        for (Block prev : block.getPrevs()) {
-            if (outStates.containsKey(prev)) {
-                allVars.addAll(outStates.get(prev).keySet());
-            }
-        }
-        for (String var : allVars) {
-            Value result = null;
-            boolean first = true;
-
-            for (Block prev : block.getPrevs()) {
-                Value prevVal = outStates.getOrDefault(prev, new HashMap<>()).getOrDefault(var, new Value(ValType.TOP));
-
-                if (first) {
-                    result = prevVal;
-                    first = false;
-                } else {
-                    result = meet(result, prevVal);
-                }
-            }
-            if (result != null && result.type != ValType.TOP) {
-                inState.put(var, result);
-            }
-        }
-        return inState;
-    }
-
-    private Value calculateConstValue(String op, Value v1, Value v2) {
-        if (v1.type == ValType.CONST && v2.type == ValType.CONST) {
-            if ((op.equals("div") || op.equals("mod")) && v2.val == 0) {
-                return null;
-            }
-            int cal = Calculate.getRes(op, String.valueOf(v1.val), String.valueOf(v2.val));
-            return new Value(cal);
-        } else if (v1.type == ValType.BOTTOM || v2.type == ValType.BOTTOM) {
-            return new Value(ValType.BOTTOM);
-        } else {
-            return new Value(ValType.TOP);
-        }
-    }
-
-    public void globalConstantPropagation() {
-        HashSet<String> localVars = collectLocalVars();
-        HashMap<Block, HashMap<String, Value>> outStates = new HashMap<>();
-        for (Block b : blockList) {
-            outStates.put(b, new HashMap<>());
-        }
-        Queue<Block> worklist = new LinkedList<>(blockList);
-
-        while (!worklist.isEmpty()) {
-            Block block = worklist.poll();
-            HashMap<String, Value> currentVars = mergePredecessors(block, outStates);
-
-            for (Quadruple q : block.getIrList().getIRList()) {
-                String op = q.op();
-                String res = q.result();
-                String arg1 = q.arg1();
-                String arg2 = q.arg2();
-
-                if (op.equals("func_param")) {
-                    currentVars.put(arg1, new Value(ValType.BOTTOM));
-                } else if (op.equals("call")) {
-                    handleCallSideEffects(res, currentVars, localVars);
-                } else if (res != null && !res.equals("_")) {
-                    if (op.equals("assign")) {
-                        Value val = getValue(arg1, currentVars, localVars);
-                        currentVars.put(res, val);
-                    } else if (Calculate.canCalculate(op)) {
-                        Value v1 = getValue(arg1, currentVars, localVars);
-                        Value v2 = getValue(arg2, currentVars, localVars);
-                        Value calculated = calculateConstValue(op, v1, v2);
-                        currentVars.put(res, Objects.requireNonNullElseGet(calculated, () -> new Value(ValType.BOTTOM)));
-                    } else {
-                        currentVars.put(res, new Value(ValType.BOTTOM));
-                    }
-                }
-            }
-            if (!currentVars.equals(outStates.get(block))) {
-                outStates.put(block, currentVars);
-                for (Block next : block.getNexts()) {
-                    if (!worklist.contains(next)) {
-                        worklist.add(next);
-                    }
-                }
-            }
-        }
-
+    public boolean peephole() {
+        boolean changed = false;
         for (Block block : blockList) {
-            HashMap<String, Value> currentVars = mergePredecessors(block, outStates);
-            ArrayList<Quadruple> newIr = new ArrayList<>();
-
-            for (Quadruple q : block.getIrList().getIRList()) {
-                String op = q.op();
-                String arg1 = q.arg1();
-                String arg2 = q.arg2();
-                String res = q.result();
-                String newArg1 = arg1;
-                String newArg2 = arg2;
-                boolean isDecl = op.equals("alloc") || op.equals("array_alloc") || op.equals("func_param");
-
-                if (!isDecl && arg1 != null && currentVars.containsKey(arg1) && currentVars.get(arg1).type == ValType.CONST) {
-                    newArg1 = String.valueOf(currentVars.get(arg1).val);
-                }
-                if (arg2 != null && currentVars.containsKey(arg2) && currentVars.get(arg2).type == ValType.CONST) {
-                    newArg2 = String.valueOf(currentVars.get(arg2).val);
-                }
-                Quadruple newQ = new Quadruple(op, newArg1, newArg2, res);
-
-                if (op.equals("beq")) {
-                    if (newArg1 != null && newArg2 != null && Calculate.isNumber(newArg1) && Calculate.isNumber(newArg2)) {
-                        if (Integer.parseInt(newArg1) == Integer.parseInt(newArg2)) {
-                            newIr.add(new Quadruple("j", "_", "_", res));
-                        }
-                    } else {
-                        newIr.add(newQ);
-                    }
-                    continue;
-                }
-
-                if (op.equals("func_param")) {
-                    currentVars.put(arg1, new Value(ValType.BOTTOM));
-                    newIr.add(newQ);
-                } else if (op.equals("call")) {
-                    newIr.add(newQ);
-                    handleCallSideEffects(res, currentVars, localVars);
-                } else if (res != null && res.startsWith("ir_")) {
-                    if (op.equals("assign")) {
-                        Value val = getValue(newArg1, currentVars, localVars);
-                        currentVars.put(res, val);
-                        newIr.add(newQ);
-                    } else if (Calculate.canCalculate(op)) {
-                        Value v1 = getValue(newArg1, currentVars, localVars);
-                        Value v2 = getValue(newArg2, currentVars, localVars);
-                        Value calculated = calculateConstValue(op, v1, v2);
-
-                        if (calculated != null && calculated.type == ValType.CONST) {
-                            currentVars.put(res, calculated);
-                            newIr.add(new Quadruple("assign", String.valueOf(calculated.val), "_", res));
-                        } else {
-                            currentVars.put(res, Objects.requireNonNullElseGet(calculated, () -> new Value(ValType.BOTTOM)));
-                            newIr.add(newQ);
-                        }
-                    } else {
-                        currentVars.put(res, new Value(ValType.BOTTOM));
-                        newIr.add(newQ);
-                    }
-                } else {
-                    newIr.add(newQ);
-                }
-            }
-            block.getIrList().getIRList().clear();
-            block.getIrList().getIRList().addAll(newIr);
-        }
-    }
-
-    public void peephole() {
-        for (Block block : blockList) {
-            ArrayList<Quadruple> newIr = new ArrayList<>();
-            for (Quadruple q : block.getIrList().getIRList()) {
-                if (q.op().equals("assign") && q.arg1().equals(q.result())) {
-                    continue;
+            Iterator<Quad> it = block.getIrList().iterator();
+            while (it.hasNext()) {
+                Quad q = it.next();
+                if (q.op() == OpType.ASSIGN && q.arg1() == q.result()) {
+                    it.remove();
+                    changed = true;
                 }
-                newIr.add(q);
             }
-            block.getIrList().getIRList().clear();
-            block.getIrList().getIRList().addAll(newIr);
         }
 
         for (int i = 0; i < blockList.size() - 1; i++) {
             Block curr = blockList.get(i);
             Block next = blockList.get(i + 1);
             Quadruple last = curr.getLastQuad();
-            String nextLabel = next.getLabel();
+            Operand nextLabel = next.getLabel();
             if (last != null && nextLabel != null) {
-                if ((last.op().equals("j") || last.op().equals("beq")) && last.result().equals(nextLabel)) {
-                    curr.getIrList().getIRList().remove(curr.getIrList().size() - 1);
+                if ((last.op() == OpType.J || last.op() == OpType.BEQ) && last.result() == nextLabel) {
+                    curr.getIrList().remove(curr.getIrList().size() - 1);
+                    changed = true;
                 }
             }
         }
 
-        irList.getIRList().clear();
+        irList.clear();
         for (Block block : blockList) {
             irList.addAll(block.getIrList());
         }
+        return changed;
     }
 
-    public void deadCodeElimination() {
-        HashSet<String> localVars = collectLocalVars();
+    public boolean deadCodeElimination() {
+        boolean modified = false;
         boolean changed = true;
         while (changed) {
             changed = false;
-            HashMap<Block, HashSet<String>> useMap = new HashMap<>();
-            HashMap<Block, HashSet<String>> defMap = new HashMap<>();
-            for (Block block : blockList) {
-                computeUseDef(block, useMap, defMap);
-            }
-            HashMap<Block, HashSet<String>> liveIn = new HashMap<>();
-            HashMap<Block, HashSet<String>> liveOut = new HashMap<>();
+            require(Analysis.LIVENESS);
             for (Block block : blockList) {
-                liveIn.put(block, new HashSet<>());
-                liveOut.put(block, new HashSet<>());
-            }
-            boolean livedChanged = true;
-            while (livedChanged) {
-                livedChanged = false;
-                for (int i = blockList.size() - 1; i >= 0; i--) {
-                    Block block = blockList.get(i);
-                    HashSet<String> newLiveOut = new HashSet<>();
-                    for (Block succ : block.getNexts()) {
-                        newLiveOut.addAll(liveIn.get(succ));
+                BitVector currentLive = liveness.getOut(block).copy();
+                int[] owner = matchParams(block.getIrList());
+                boolean[] dropped = new boolean[owner.length];
+                int index = owner.length;
+                Iterator<Quad> it = block.getIrList().descendingIterator();
+                while (it.hasNext()) {
+                    Quad q = it.next();
+                    index--;
+                    boolean unused = q.result().isNone() || (q.result().isLocal() && !currentLive.get(variables.get(q.result())));
+                    if (q.op() == OpType.CALL && owner[index] == index && unused && sideEffects.isRemovable(q)) {
+                        dropped[index] = true;
                     }
-                    HashSet<String> newLiveIn = new HashSet<>(newLiveOut);
-                    newLiveIn.removeAll(defMap.get(block));
-                    newLiveIn.addAll(useMap.get(block));
-                    if (!newLiveIn.equals(liveIn.get(block)) || !newLiveOut.equals(liveOut.get(block))) {
-                        liveIn.put(block, newLiveIn);
-                        liveOut.put(block, newLiveOut);
-                        livedChanged = true;
+                    if (dropped[index] || (q.op() == OpType.PARAM && owner[index] >= 0 && dropped[owner[index]])) {
+                        it.remove();
+                        changed = true;
+                        continue;
                     }
-                }
-            }
-            for (Block block : blockList) {
-                HashSet<String> currentLive = new HashSet<>(liveOut.get(block));
-                ArrayList<Quadruple> instructions = block.getIrList().getIRList();
-                ListIterator<Quadruple> it = instructions.listIterator(instructions.size());
-                while (it.hasPrevious()) {
-                    Quadruple q = it.previous();
                     if (hasSideEffect(q)) {
                         updateLiveSet(q, currentLive);
                         continue;
                     }
-                    String result = q.result();
-                    boolean definesVar = result != null && !result.equals("_");
-                    boolean isGlobalWrite = definesVar && !localVars.contains(result) && !result.startsWith("ir_temp");
+                    Operand result = q.result();
+                    boolean definesVar = !result.isNone();
+                    boolean isGlobalWrite = definesVar && !result.isLocal();
                     if (isGlobalWrite) {
                         updateLiveSet(q, currentLive);
                         continue;
                     }
-                    if (definesVar && !currentLive.contains(result)) {
+                    if (definesVar && !currentLive.get(variables.get(result))) {
                         it.remove();
                         changed = true;
                     } else {
@@ -725,194 +672,283 @@ public class Func {
                     }
                 }
             }
+            if (changed) {
+                modified = true;
+                invalidate(EnumSet.of(Analysis.CFG, Analysis.DOMINATORS, Analysis.LOOPS));
+            }
         }
-        irList.getIRList().clear();
+        irList.clear();
         for (Block block : blockList) {
             irList.addAll(block.getIrList());
         }
+        return modified;
     }
 
-    private void computeUseDef(Block block, HashMap<Block, HashSet<String>> useMap, HashMap<Block, HashSet<String>> defMap) {
-        HashSet<String> use = new HashSet<>();
-        HashSet<String> def = new HashSet<>();
-        for (Quadruple q : block.getIrList().getIRList()) {
-            String arg1 = q.arg1();
-            String arg2 = q.arg2();
-            String result = q.result();
-            if (isValidVar(arg1) && !def.contains(arg1)) use.add(arg1);
-            if (isValidVar(arg2) && !def.contains(arg2)) use.add(arg2);
-            if (q.op().equals("store")) {
-                if (isValidVar(result) && !def.contains(result)) use.add(result);
+    private int[] matchParams(IrList irList) {
+        int[] owner = new int[irList.size()];
+        Arrays.fill(owner, -1);
+        ArrayList<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < irList.size(); i++) {
+            if (irList.getOp(i) == OpType.PARAM) {
+                pending.add(i);
+            } else if (irList.getOp(i) == OpType.CALL) {
+                int count = irList.getArg2(i).getValue();
+                if (count > pending.size()) {
+                    pending.clear();
+                    continue;
+                }
+                for (int k = 0; k < count; k++) {
+                    owner[pending.remove(pending.size() - 1)] = i;
+                }
+                owner[i] = i;
+            }
+        }
+        return owner;
+    }
+
+    private void computeLiveness() {
+        liveness = new Dataflow(blockList, variables.size(), Dataflow.Direction.backward, Dataflow.Meet.union);
+        for (Block block : blockList) {
+            liveness.setTransfer(block, useMap.get(block), defMap.get(block));
+        }
+        liveness.solve();
+    }
+
+    private void computeUseDef(Block block) {
+        BitVector use = new BitVector(variables.size());
+        BitVector def = new BitVector(variables.size());
+        for (Quad q : block.getIrList()) {
+            Operand arg1 = q.arg1();
+            Operand arg2 = q.arg2();
+            Operand result = q.result();
+            if (arg1.isVar() && !def.get(variables.get(arg1))) use.set(variables.get(arg1));
+            if (arg2.isVar() && !def.get(variables.get(arg2))) use.set(variables.get(arg2));
+            if (q.op() == OpType.STORE) {
+                if (result.isVar() && !def.get(variables.get(result))) use.set(variables.get(result));
             }
-            if (result != null && !result.equals("_") && !q.op().equals("store") && !hasSideEffect(q)) {
-                def.add(result);
-            } else if ((q.op().equals("call") || q.op().equals("alloc") || q.op().equals("array_alloc")) && result != null && !result.equals("_")) {
-                def.add(result);
+            if (!result.isVar()) continue;
+            if (q.op() != OpType.STORE && !hasSideEffect(q)) {
+                def.set(variables.get(result));
+            } else if (q.op() == OpType.CALL || q.op() == OpType.ALLOC || q.op() == OpType.ARRAY_ALLOC) {
+                def.set(variables.get(result));
             }
         }
         useMap.put(block, use);
         defMap.put(block, def);
     }
 
-    private void updateLiveSet(Quadruple q, HashSet<String> currentLive) {
-        String result = q.result();
-        String arg1 = q.arg1();
-        String arg2 = q.arg2();
-        if (result != null && !result.equals("_") && !q.op().equals("store") && !q.op().startsWith("beq") && !q.op().equals("j")) {
-            currentLive.remove(result);
+    private void updateLiveSet(Quad q, BitVector currentLive) {
+        Operand result = q.result();
+        Operand arg1 = q.arg1();
+        Operand arg2 = q.arg2();
+        if (!result.isNone() && q.op() != OpType.STORE && q.op() != OpType.BEQ && q.op() != OpType.J) {
+            if (result.isVar()) currentLive.clear(variables.get(result));
         }
-        if (isValidVar(arg1)) currentLive.add(arg1);
-        if (isValidVar(arg2)) currentLive.add(arg2);
-        if (q.op().equals("store") && isValidVar(result)) currentLive.add(result);
-    }
-
-    private boolean isValidVar(String s) {
-        return s != null && !s.equals("_") && !Calculate.isNumber(s);
+        if (arg1.isVar()) currentLive.set(variables.get(arg1));
+        if (arg2.isVar()) currentLive.set(variables.get(arg2));
+        if (q.op() == OpType.STORE && result.isVar()) currentLive.set(variables.get(result));
     }
 
-    private boolean hasSideEffect(Quadruple q) {
-        String op = q.op();
-        return switch (op) {
-            case "beq", "j", "ret", "label", "func_begin", "func_end", "alloc", "array_alloc", "store", "print",
-                 "printf", "get_int", "call", "param", "func_param" -> true;
+    private boolean hasSideEffect(Quad q) {
+        return switch (q.op()) {
+            case BEQ, J, RET, LABEL, FUNC_BEGIN, FUNC_END, ALLOC, ARRAY_ALLOC, STORE, PRINT, PRINTF, GET_INT, CALL,
+                 PARAM, FUNC_PARAM -> true;
             default -> false;
         };
     }
 
-    public void strengthReduction() {
+    private int getShiftAddCost(int c) {
+        List<int[]> digits = Calculate.getSignedDigits(c);
+        int cost = (digits.size() - 1) * Calculate.getCost(OpType.ADDU);
+        boolean positive = false;
+        for (int[] digit : digits) {
+            if (digit[0] > 0) cost += Calculate.getCost(OpType.SLLV);
+            positive |= digit[1] > 0;
+        }
+        return positive ? cost : cost + Calculate.getCost(OpType.SUBU);
+    }
+
+    private int getMagicCost(OpType op, int d) {
+        if (d == 0 || d == -1 || d == Integer.MIN_VALUE) return Integer.MAX_VALUE;
+        int[] magic = Calculate.getMagic(d);
+        int cost = Calculate.getCost(OpType.MULHI) + Calculate.getCost(OpType.SRLV) + Calculate.getCost(OpType.ADDU);
+        if ((d > 0 && magic[0] < 0) || (d < 0 && magic[0] > 0)) cost += Calculate.getCost(OpType.ADDU);
+        if (magic[1] > 0) cost += Calculate.getCost(OpType.SRAV);
+        if (op == OpType.MOD) cost += Math.min(getShiftAddCost(d), Calculate.getCost(OpType.MULU)) + Calculate.getCost(OpType.SUBU);
+        return cost;
+    }
+
+    private void generateMagicDivision(IrList newIr, Operand n, int d, Operand result) {
+        int[] magic = Calculate.getMagic(d);
+        Operand q = newSrTemp(newIr);
+        newIr.add(OpType.MULHI, n, Operand.of(magic[0]), q);
+        if ((d > 0 && magic[0] < 0) || (d < 0 && magic[0] > 0)) {
+            Operand corrected = newSrTemp(newIr);
+            newIr.add(d > 0 ? OpType.ADDU : OpType.SUBU, q, n, corrected);
+            q = corrected;
+        }
+        if (magic[1] > 0) {
+            Operand shifted = newSrTemp(newIr);
+            newIr.add(OpType.SRAV, q, Operand.of(magic[1]), shifted);
+            q = shifted;
+        }
+        Operand sign = newSrTemp(newIr);
+        newIr.add(OpType.SRLV, q, Operand.of(31), sign);
+        newIr.add(OpType.ADDU, q, sign, result);
+    }
+
+    private void generateMultiply(IrList newIr, Operand x, int c, Operand result) {
+        if (getShiftAddCost(c) < Calculate.getCost(OpType.MULU)) {
+            generateShiftAdd(newIr, x, c, result);
+        } else {
+            newIr.add(OpType.MULU, x, Operand.of(c), result);
+        }
+    }
+
+    private void generateShiftAdd(IrList newIr, Operand x, int c, Operand result) {
+        ArrayList<int[]> digits = new ArrayList<>(Calculate.getSignedDigits(c));
+        for (int i = 0; i < digits.size(); i++) {
+            if (digits.get(i)[1] > 0) {
+                digits.add(0, digits.remove(i));
+                break;
+            }
+        }
+        Operand acc = null;
+        for (int i = 0; i < digits.size(); i++) {
+            int[] digit = digits.get(i);
+            Operand term = x;
+            if (digit[0] > 0) {
+                term = newSrTemp(newIr);
+                newIr.add(OpType.SLLV, x, Operand.of(digit[0]), term);
+            }
+            boolean last = i == digits.size() - 1;
+            if (acc == null && digit[1] > 0 && !last) {
+                acc = term;
+                continue;
+            }
+            Operand target = last ? result : newSrTemp(newIr);
+            if (acc == null && digit[1] > 0) {
+                newIr.add(OpType.ASSIGN, term, null, target);
+            } else {
+                newIr.add(digit[1] > 0 ? OpType.ADDU : OpType.SUBU, acc == null ? Operand.of(0) : acc, term, target);
+            }
+            acc = target;
+        }
+    }
+
+    public boolean strengthReduction() {
+        boolean changed = false;
         for (Block block : blockList) {
-            ArrayList<Quadruple> newIr = new ArrayList<>();
-            for (Quadruple q : block.getIrList().getIRList()) {
-                String op = q.op();
-                String arg1 = q.arg1();
-                String arg2 = q.arg2();
-                String result = q.result();
-                int k = -1;
-                if (Calculate.isNumber(arg2)) {
-                    k = Calculate.getPower(arg2);
-                }
+            IrList newIr = new IrList(block.getIrList().size());
+            for (Quad q : block.getIrList()) {
+                OpType op = q.op();
+                Operand arg1 = q.arg1();
+                Operand arg2 = q.arg2();
+                Operand result = q.result();
+                int k = Calculate.getPower(arg2);
 
                 boolean processed = false;
                 switch (op) {
-                    case "addu" -> {
-                        if (Calculate.isNumber(arg1) && Integer.parseInt(arg1) == 0) {
-                            newIr.add(new Quadruple("assign", arg2, "_", result));
+                    case ADDU -> {
+                        if (Calculate.isValue(arg1, 0)) {
+                            newIr.add(OpType.ASSIGN, arg2, null, result);
                             processed = true;
-                        } else if (Calculate.isNumber(arg2) && Integer.parseInt(arg2) == 0) {
-                            newIr.add(new Quadruple("assign", arg1, "_", result));
+                        } else if (Calculate.isValue(arg2, 0)) {
+                            newIr.add(OpType.ASSIGN, arg1, null, result);
                             processed = true;
                         }
                     }
-                    case "subu" -> {
-                        if (Calculate.isNumber(arg2) && Integer.parseInt(arg2) == 0) {
-                            newIr.add(new Quadruple("assign", arg1, "_", result));
+                    case SUBU -> {
+                        if (Calculate.isValue(arg2, 0)) {
+                            newIr.add(OpType.ASSIGN, arg1, null, result);
                             processed = true;
                         }
                     }
-                    case "mulu" -> {
-                        if ((Calculate.isNumber(arg1) && Integer.parseInt(arg1) == 0) || (Calculate.isNumber(arg2) && Integer.parseInt(arg2) == 0)) {
-                            newIr.add(new Quadruple("assign", "0", "_", result));
+                    case MULU -> {
+                        if (Calculate.isValue(arg1, 0) || Calculate.isValue(arg2, 0)) {
+                            newIr.add(OpType.ASSIGN, Operand.of(0), null, result);
                             processed = true;
-                        } else if (Calculate.isNumber(arg1) && Integer.parseInt(arg1) == 1) {
-                            newIr.add(new Quadruple("assign", arg2, "_", result));
+                        } else if (Calculate.isValue(arg1, 1)) {
+                            newIr.add(OpType.ASSIGN, arg2, null, result);
                             processed = true;
-                        } else if (Calculate.isNumber(arg2) && Integer.parseInt(arg2) == 1) {
-                            newIr.add(new Quadruple("assign", arg1, "_", result));
+                        } else if (Calculate.isValue(arg2, 1)) {
+                            newIr.add(OpType.ASSIGN, arg1, null, result);
                             processed = true;
                         }
                     }
-                    case "div" -> {
-                        if (Calculate.isNumber(arg1) && Integer.parseInt(arg1) == 0) {
-                            newIr.add(new Quadruple("assign", "0", "_", result));
+                    case DIV -> {
+                        if (Calculate.isValue(arg1, 0)) {
+                            newIr.add(OpType.ASSIGN, Operand.of(0), null, result);
                             processed = true;
-                        } else if (Calculate.isNumber(arg2) && Integer.parseInt(arg2) == 1) {
-                            newIr.add(new Quadruple("assign", arg1, "_", result));
+                        } else if (Calculate.isValue(arg2, 1)) {
+                            newIr.add(OpType.ASSIGN, arg1, null, result);
                             processed = true;
                         }
                     }
-                    case "mod" -> {
-                        if (Calculate.isNumber(arg1) && Integer.parseInt(arg1) == 0) {
-                            newIr.add(new Quadruple("assign", "0", "_", result));
-                            processed = true;
-                        } else if (Calculate.isNumber(arg2) && Integer.parseInt(arg2) == 1) {
-                            newIr.add(new Quadruple("assign", "0", "_", result));
+                    case MOD -> {
+                        if (Calculate.isValue(arg1, 0) || Calculate.isValue(arg2, 1)) {
+                            newIr.add(OpType.ASSIGN, Operand.of(0), null, result);
                             processed = true;
                         }
                     }
                 }
-                if (processed) continue;
+                if (processed) {
+                    changed = true;
+                    continue;
+                }
 
-                if (k != -1) {
+                if (k != -1 && (op == OpType.MULU || op == OpType.DIV || op == OpType.MOD)) {
+                    changed = true;
                     switch (op) {
-                        case "mulu" -> newIr.add(new Quadruple("sllv", arg1, String.valueOf(k), result));
-                        case "div" -> {
+                        case MULU -> newIr.add(OpType.SLLV, arg1, Operand.of(k), result);
+                        case DIV -> {
                             if (k == 0) {
-                                newIr.add(new Quadruple("assign", arg1, "_", result));
+                                newIr.add(OpType.ASSIGN, arg1, null, result);
                             } else {
-                                String t3 = generateSrAdjustment(newIr, arg1, k);
-                                newIr.add(new Quadruple("srav", t3, String.valueOf(k), result));
+                                Operand t3 = generateSrAdjustment(newIr, arg1, k);
+                                newIr.add(OpType.SRAV, t3, Operand.of(k), result);
                             }
                         }
-                        case "mod" -> {
+                        case MOD -> {
                             if (k == 0) {
-                                newIr.add(new Quadruple("assign", "0", "_", result));
+                                newIr.add(OpType.ASSIGN, Operand.of(0), null, result);
                             } else {
-                                String t3 = generateSrAdjustment(newIr, arg1, k);
-                                String quotient = "opt_sr_temp_" + (srTempCounter++);
-                                newIr.add(new Quadruple("alloc", quotient, null, "int"));
-                                newIr.add(new Quadruple("srav", t3, String.valueOf(k), quotient));
-                                String p = "opt_sr_temp_" + (srTempCounter++);
-                                newIr.add(new Quadruple("alloc", p, null, "int"));
-                                newIr.add(new Quadruple("sllv", quotient, String.valueOf(k), p));
-                                newIr.add(new Quadruple("subu", arg1, p, result));
+                                Operand t3 = generateSrAdjustment(newIr, arg1, k);
+                                Operand quotient = newSrTemp(newIr);
+                                newIr.add(OpType.SRAV, t3, Operand.of(k), quotient);
+                                Operand p = newSrTemp(newIr);
+                                newIr.add(OpType.SLLV, quotient, Operand.of(k), p);
+                                newIr.add(OpType.SUBU, arg1, p, result);
                             }
                         }
-                        default -> newIr.add(q);
                     }
-                } else if (op.equals("mulu") && Calculate.isNumber(arg1) && Calculate.getPower(arg1) != -1) {
+                } else if (op == OpType.MULU && Calculate.getPower(arg1) != -1) {
+                    changed = true;
                     k = Calculate.getPower(arg1);
-                    newIr.add(new Quadruple("sllv", arg2, String.valueOf(k), result));
+                    newIr.add(OpType.SLLV, arg2, Operand.of(k), result);
+                } else if ((op == OpType.DIV || op == OpType.MOD) && !arg1.isImmediate() && arg2.isImmediate() && getMagicCost(op, arg2.getValue()) < Calculate.getCost(op)) {
+                    changed = true;
+                    Operand quotient = op == OpType.DIV ? result : newSrTemp(newIr);
+                    generateMagicDivision(newIr, arg1, arg2.getValue(), quotient);
+                    if (op == OpType.MOD) {
+                        Operand product = newSrTemp(newIr);
+                        generateMultiply(newIr, quotient, arg2.getValue(), product);
+                        newIr.add(OpType.SUBU, arg1, product, result);
+                    }
+                } else if (op == OpType.MULU && arg1.isImmediate() != arg2.isImmediate() && getShiftAddCost(arg1.isImmediate() ? arg1.getValue() : arg2.getValue()) < Calculate.getCost(op)) {
+                    changed = true;
+                    generateShiftAdd(newIr, arg1.isImmediate() ? arg2 : arg1, arg1.isImmediate() ? arg1.getValue() : arg2.getValue(), result);
                 } else {
                     newIr.add(q);
                 }
             }
-            block.getIrList().getIRList().clear();
-            block.getIrList().addAll(new IrList());
-            block.getIrList().getIRList().addAll(newIr);
+            block.getIrList().clear();
+            block.getIrList().addAll(newIr);
         }
-        irList.getIRList().clear();
+        irList.clear();
         for (Block block : blockList) {
             irList.addAll(block.getIrList());
         }
+        return changed;
     }
-
-    private enum ValType {TOP, CONST, BOTTOM}
-
-    private static class Value {
-        final ValType type;
-        int val;
-
-        Value(ValType type) {
-            this.type = type;
-        }
-
-        Value(int val) {
-            this.type = ValType.CONST;
-            this.val = val;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Value value1 = (Value) o;
-            if (type != value1.type) return false;
-            return type != ValType.CONST || val == value1.val;
-        }
-
-        @Override
-        public String toString() {
-            return type == ValType.CONST ? String.valueOf(val) : type.toString();
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,175 @@
+package optimize;
+
+import backend.config.*;
+import backend.data.*;
+
+import java.util.*;
+
+public class Inliner {
+    private final ArrayList<Func> funcList;
+    private final int sizeLimit;
+    private final LinkedHashMap<String, Func> funcs = new LinkedHashMap<>();
+    private CallGraph callGraph;
+    private int budget;
+    private int siteCounter = 0;
+
+    public Inliner(ArrayList<Func> funcList, int sizeLimit, int growthPercent) {
+        this.funcList = funcList;
+        this.sizeLimit = sizeLimit;
+        int total = 0;
+        for (Func func : funcList) {
+            funcs.put(func.getName(), func);
+            total += sizeOf(func.getIrList());
+        }
+        this.budget = total * growthPercent / 100;
+    }
+
+    public boolean run() {
+        callGraph = new CallGraph(funcs.values());
+        boolean changed = false;
+        for (List<String> component : callGraph.getBottomUpComponents()) {
+            for (String name : component) {
+                IrList inlined = inlineCalls(funcs.get(name).getIrList());
+                if (inlined != null) {
+                    funcs.put(name, new Func(inlined));
+                    changed = true;
+                }
+            }
+        }
+        if (!changed) return false;
+        Set<String> reachable = new CallGraph(funcs.values()).getReachable("main");
+        funcList.clear();
+        for (Map.Entry<String, Func> entry : funcs.entrySet()) {
+            if (reachable.contains(entry.getKey())) funcList.add(entry.getValue());
+        }
+        return true;
+    }
+
+    private int sizeOf(IrList irList) {
+        int size = 0;
+        for (int i = 0; i < irList.size(); i++) {
+            OpType op = irList.getOp(i);
+            if (op != OpType.ALLOC && op != OpType.ARRAY_ALLOC && op != OpType.LABEL) size++;
+        }
+        return size;
+    }
+
+    private boolean canInline(String callee) {
+        if (!funcs.containsKey(callee) || callee.equals("main") || callGraph.isRecursive(callee)) return false;
+        int size = sizeOf(funcs.get(callee).getIrList());
+        return size <= sizeLimit && size <= budget;
+    }
+
+    private IrList inlineCalls(IrList irList) {
+        boolean[] consumed = new boolean[irList.size()];
+        Operand[] copies = new Operand[irList.size()];
+        ArrayList<Integer> pending = new ArrayList<>();
+        HashMap<Integer, Site> sites = new HashMap<>();
+        int i = 0;
+        for (Quad q : irList) {
+            if (q.op() == OpType.PARAM) {
+                pending.add(i);
+            } else if (q.op() == OpType.CALL) {
+                int count = q.arg2().getValue();
+                List<Integer> params = pending.subList(pending.size() - count, pending.size());
+                String callee = q.arg1().getName();
+                if (canInline(callee)) {
+                    budget -= sizeOf(funcs.get(callee).getIrList());
+                    Site site = new Site(funcs.get(callee).getIrList(), siteCounter++);
+                    for (int k = 0; k < count; k++) {
+                        consumed[params.get(k)] = true;
+                        copies[params.get(k)] = site.bind(k, irList.getArg1(params.get(k)), irList.getArg2(params.get(k)));
+                    }
+                    sites.put(i, site);
+                }
+                params.clear();
+            }
+            i++;
+        }
+        if (sites.isEmpty()) return null;
+        IrList result = new IrList(irList.size());
+        IrList allocs = new IrList();
+        i = 0;
+        for (Quad q : irList) {
+            if (consumed[i]) {
+                if (copies[i] != null) result.add(OpType.ASSIGN, q.arg1(), null, copies[i]);
+            } else if (sites.containsKey(i)) {
+                sites.get(i).expand(q.result(), result, allocs);
+            } else {
+                result.add(q);
+            }
+            i++;
+        }
+        int index = 0;
+        while (index < result.size() && (result.getOp(index) == OpType.FUNC_BEGIN || result.getOp(index) == OpType.FUNC_PARAM)) {
+            index++;
+        }
+        for (Quad q : allocs) {
+            result.insert(index++, q);
+        }
+        return result;
+    }
+
+    private static class Site {
+        private final IrList body;
+        private final int id;
+        private final ArrayList<Operand> params = new ArrayList<>();
+        private final HashMap<Operand, Operand> rename = new HashMap<>();
+        private final ArrayList<Operand> copies = new ArrayList<>();
+
+        Site(IrList body, int id) {
+            this.body = body;
+            this.id = id;
+            for (Quad q : body) {
+                if (q.op() == OpType.FUNC_PARAM) params.add(q.arg1());
+            }
+        }
+
+        Operand bind(int k, Operand actual, Operand kind) {
+            Operand formal = params.get(k);
+            if (kind == Operand.ARRAY) {
+                rename.put(formal, actual);
+                return null;
+            }
+            Operand copy = fresh(formal, OperandType.Local);
+            rename.put(formal, copy);
+            copies.add(copy);
+            return copy;
+        }
+
+        private Operand fresh(Operand operand, OperandType type) {
+            return Operand.of(type, operand.getName() + "_inl_" + id);
+        }
+
+        private Operand map(Operand operand) {
+            if (!operand.isLocal() && operand.getType() != OperandType.Label) return operand;
+            return rename.computeIfAbsent(operand, k -> fresh(k, k.getType()));
+        }
+
+        void expand(Operand target, IrList result, IrList allocs) {
+            Operand exit = Operand.of(OperandType.Label, "inl_exit_" + id);
+            for (Operand copy : copies) {
+                allocs.add(OpType.ALLOC, copy, null, Operand.INT);
+            }
+            int last = body.size() - 1;
+            while (last >= 0 && body.getOp(last) == OpType.FUNC_END) {
+                last--;
+            }
+            int i = 0;
+            for (Quad q : body) {
+                switch (q.op()) {
+                    case FUNC_BEGIN, FUNC_END, FUNC_PARAM -> {
+                    }
+                    case ALLOC, ARRAY_ALLOC -> allocs.add(q.op(), map(q.arg1()), q.arg2(), q.result());
+                    case RET -> {
+                        if (!q.arg1().isNone() && target.isVar()) result.add(OpType.ASSIGN, map(q.arg1()), null, target);
+                        if (i != last) result.add(OpType.J, null, null, exit);
+                    }
+                    default -> result.add(q.op(), map(q.arg1()), map(q.arg2()), map(q.result()));
+                }
+                i++;
+            }
+            result.add(OpType.LABEL, null, null, exit);
+        }
+    }
+}
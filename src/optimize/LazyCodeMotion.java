@@ -0,0 +1,292 @@
+package optimize;
+
+import backend.config.*;
+import backend.data.*;
+
+import java.util.*;
+
+public class LazyCodeMotion {
+    private final Func func;
+    private final ArrayList<Block> blockList;
+    private final HashMap<List<Object>, Integer> expressions = new HashMap<>();
+    private final ArrayList<Quadruple> samples = new ArrayList<>();
+    private final HashMap<Operand, BitVector> usedBy = new HashMap<>();
+    private final HashMap<Block, BitVector> antloc = new HashMap<>();
+    private final HashMap<Block, BitVector> comp = new HashMap<>();
+    private final HashMap<Block, BitVector> transp = new HashMap<>();
+    private int size;
+    private final LinkedHashMap<Integer, Operand> temps = new LinkedHashMap<>();
+    private int tempCounter = 0;
+    private int labelCounter = 0;
+
+    public LazyCodeMotion(Func func) {
+        this.func = func;
+        this.blockList = func.getBlockList();
+    }
+
+    public boolean run() {
+        if (blockList.isEmpty()) return false;
+        expressions.clear();
+        samples.clear();
+        usedBy.clear();
+        temps.clear();
+        for (Block block : blockList) {
+            for (Quad q : block.getIrList()) {
+                if (isCandidate(q)) indexOf(q);
+            }
+        }
+        if (expressions.isEmpty()) return false;
+        size = expressions.size();
+        for (int e = 0; e < size; e++) {
+            for (Operand operand : new Operand[]{samples.get(e).arg1(), samples.get(e).arg2()}) {
+                if (operand.isVar()) usedBy.computeIfAbsent(operand, k -> new BitVector(size)).set(e);
+            }
+        }
+        for (Block block : blockList) {
+            computeLocal(block);
+        }
+        BitVector universe = BitVector.full(size);
+        Block entry = blockList.get(0);
+        Dataflow availability = new Dataflow(blockList, size, Dataflow.Direction.forward, Dataflow.Meet.intersection);
+        Dataflow anticipability = new Dataflow(blockList, size, Dataflow.Direction.backward, Dataflow.Meet.intersection);
+        for (Block block : blockList) {
+            BitVector opaque = universe.copy();
+            opaque.andNot(transp.get(block));
+            availability.setTransfer(block, comp.get(block), opaque);
+            anticipability.setTransfer(block, antloc.get(block), opaque);
+        }
+        availability.solve();
+        anticipability.solve();
+        HashMap<Block, BitVector> avOut = new HashMap<>();
+        HashMap<Block, BitVector> antIn = new HashMap<>();
+        HashMap<Block, BitVector> antOut = new HashMap<>();
+        for (Block block : blockList) {
+            avOut.put(block, availability.getOut(block));
+            antIn.put(block, anticipability.getIn(block));
+            antOut.put(block, anticipability.getOut(block));
+        }
+        HashMap<Block, BitVector> laterIn = new HashMap<>();
+        for (Block block : blockList) {
+            laterIn.put(block, block == entry ? antIn.get(entry).copy() : universe.copy());
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Block block : blockList) {
+                if (block == entry) continue;
+                BitVector in = universe.copy();
+                List<Block> prevs = distinct(block.getPrevs());
+                if (prevs.isEmpty()) in.clear();
+                for (Block pred : prevs) {
+                    in.and(later(pred, block, avOut, antIn, antOut, laterIn));
+                }
+                if (!in.equals(laterIn.get(block))) {
+                    laterIn.put(block, in);
+                    changed = true;
+                }
+            }
+        }
+        HashMap<Block, BitVector> delete = new HashMap<>();
+        BitVector redundant = new BitVector(size);
+        for (Block block : blockList) {
+            BitVector set = antloc.get(block).copy();
+            set.andNot(laterIn.get(block));
+            delete.put(block, set);
+            redundant.or(set);
+        }
+        if (redundant.isEmpty()) return false;
+        LinkedHashMap<Block[], BitVector> inserts = new LinkedHashMap<>();
+        for (Block block : blockList) {
+            for (Block pred : distinct(block.getPrevs())) {
+                BitVector set = later(pred, block, avOut, antIn, antOut, laterIn);
+                set.andNot(laterIn.get(block));
+                if (!set.isEmpty()) inserts.put(new Block[]{pred, block}, set);
+            }
+        }
+        for (Block block : new ArrayList<>(blockList)) {
+            rewrite(block, delete.get(block), redundant);
+        }
+        for (Map.Entry<Block[], BitVector> edge : inserts.entrySet()) {
+            if (!isTakenSplit(edge.getKey()[0], edge.getKey()[1])) insertOnEdge(edge.getKey()[0], edge.getKey()[1], edge.getValue());
+        }
+        for (Map.Entry<Block[], BitVector> edge : inserts.entrySet()) {
+            if (isTakenSplit(edge.getKey()[0], edge.getKey()[1])) insertOnEdge(edge.getKey()[0], edge.getKey()[1], edge.getValue());
+        }
+        insertAllocs();
+        return true;
+    }
+
+    private boolean isCandidate(Quad q) {
+        return q.op().canCalculate() && q.result().isVar();
+    }
+
+    private List<Object> keyOf(Quad q) {
+        Operand a = q.arg1();
+        Operand b = q.arg2();
+        if (q.op().canSwap() && a.compareTo(b) > 0) {
+            return List.of(q.op(), b, a);
+        }
+        return List.of(q.op(), a, b);
+    }
+
+    private int indexOf(Quad q) {
+        List<Object> key = keyOf(q);
+        Integer index = expressions.get(key);
+        if (index != null) return index;
+        int id = expressions.size();
+        expressions.put(key, id);
+        samples.add(q.toQuadruple());
+        return id;
+    }
+
+    private void kill(Quad q, BitVector killed) {
+        Operand def = q.getDef();
+        if (usedBy.containsKey(def)) killed.or(usedBy.get(def));
+        if (q.op() != OpType.CALL) return;
+        for (Map.Entry<Operand, BitVector> entry : usedBy.entrySet()) {
+            if (!entry.getKey().isLocal() && func.getSideEffects().mayModify(q, entry.getKey())) killed.or(entry.getValue());
+        }
+    }
+
+    private void computeLocal(Block block) {
+        BitVector use = new BitVector(size);
+        BitVector gen = new BitVector(size);
+        BitVector killed = new BitVector(size);
+        for (Quad q : block.getIrList()) {
+            if (isCandidate(q)) {
+                int e = indexOf(q);
+                if (!killed.get(e)) use.set(e);
+                gen.set(e);
+            }
+            BitVector k = new BitVector(size);
+            kill(q, k);
+            killed.or(k);
+            gen.andNot(k);
+        }
+        BitVector through = BitVector.full(size);
+        through.andNot(killed);
+        antloc.put(block, use);
+        comp.put(block, gen);
+        transp.put(block, through);
+    }
+
+    private List<Block> distinct(List<Block> blocks) {
+        return new ArrayList<>(new LinkedHashSet<>(blocks));
+    }
+
+    private BitVector later(Block pred, Block block, HashMap<Block, BitVector> avOut, HashMap<Block, BitVector> antIn, HashMap<Block, BitVector> antOut, HashMap<Block, BitVector> laterIn) {
+        BitVector earliest = antIn.get(block).copy();
+        earliest.andNot(avOut.get(pred));
+        BitVector blocked = transp.get(pred).copy();
+        blocked.and(antOut.get(pred));
+        earliest.andNot(blocked);
+        BitVector delayed = laterIn.get(pred).copy();
+        delayed.andNot(antloc.get(pred));
+        earliest.or(delayed);
+        return earliest;
+    }
+
+    private Operand tempOf(int e) {
+        return temps.computeIfAbsent(e, k -> Operand.of(OperandType.Temp, "opt_pre_temp_" + func.getName() + "_" + (tempCounter++)));
+    }
+
+    private void rewrite(Block block, BitVector delete, BitVector redundant) {
+        IrList irList = block.getIrList();
+        HashMap<Integer, Integer> last = new HashMap<>();
+        BitVector killed = new BitVector(size);
+        BitVector alive = new BitVector(size);
+        int i = 0;
+        for (Quad q : irList) {
+            if (isCandidate(q)) {
+                last.put(indexOf(q), i);
+                alive.set(indexOf(q));
+            }
+            BitVector k = new BitVector(size);
+            kill(q, k);
+            alive.andNot(k);
+            i++;
+        }
+        IrList newIr = new IrList(irList.size());
+        i = 0;
+        for (Quad q : irList) {
+            if (isCandidate(q)) {
+                int e = indexOf(q);
+                if (delete.get(e) && !killed.get(e)) {
+                    newIr.add(OpType.ASSIGN, tempOf(e), null, q.result());
+                    delete.clear(e);
+                } else if (redundant.get(e) && alive.get(e) && last.get(e) == i) {
+                    newIr.add(q.op(), q.arg1(), q.arg2(), tempOf(e));
+                    newIr.add(OpType.ASSIGN, tempOf(e), null, q.result());
+                } else {
+                    newIr.add(q);
+                }
+            } else {
+                newIr.add(q);
+            }
+            kill(q, killed);
+            i++;
+        }
+        irList.clear();
+        irList.addAll(newIr);
+    }
+
+    private IrList computations(BitVector set) {
+        IrList ir = new IrList();
+        for (int e = set.nextSetBit(0); e >= 0; e = set.nextSetBit(e + 1)) {
+            Quadruple sample = samples.get(e);
+            ir.add(sample.op(), sample.arg1(), sample.arg2(), tempOf(e));
+        }
+        return ir;
+    }
+
+    private boolean isTakenSplit(Block pred, Block block) {
+        return distinct(pred.getNexts()).size() > 1 && distinct(block.getPrevs()).size() > 1 && pred.getLastQuad().result() == block.getLabel();
+    }
+
+    private void insertOnEdge(Block pred, Block block, BitVector set) {
+        IrList code = computations(set);
+        IrList predIr = pred.getIrList();
+        Quadruple last = pred.getLastQuad();
+        if (distinct(pred.getNexts()).size() == 1) {
+            int index = last != null && (last.op() == OpType.J || last.op() == OpType.BEQ) ? predIr.size() - 1 : predIr.size();
+            for (Quad q : code) {
+                predIr.insert(index++, q);
+            }
+            return;
+        }
+        if (distinct(block.getPrevs()).size() == 1) {
+            IrList ir = block.getIrList();
+            int index = !ir.isEmpty() && ir.getOp(0) == OpType.LABEL ? 1 : 0;
+            for (Quad q : code) {
+                ir.insert(index++, q);
+            }
+            return;
+        }
+        int index = blockList.indexOf(block);
+        if (last.result() != block.getLabel()) {
+            blockList.add(index, new Block(code));
+            return;
+        }
+        Operand split = Operand.of(OperandType.Label, "pre_split_" + func.getName() + "_" + (labelCounter++));
+        code.insert(0, new Quadruple(OpType.LABEL, null, null, split));
+        code.add(OpType.J, null, null, block.getLabel());
+        predIr.set(predIr.size() - 1, new Quadruple(last.op(), last.arg1(), last.arg2(), split));
+        Block before = blockList.get(index - 1);
+        Quadruple end = before.getLastQuad();
+        if (end == null || (end.op() != OpType.J && end.op() != OpType.RET)) {
+            before.getIrList().add(OpType.J, null, null, block.getLabel());
+        }
+        blockList.add(index, new Block(code));
+    }
+
+    private void insertAllocs() {
+        IrList entry = blockList.get(0).getIrList();
+        int index = 0;
+        while (index < entry.size() && (entry.getOp(index) == OpType.FUNC_BEGIN || entry.getOp(index) == OpType.FUNC_PARAM)) {
+            index++;
+        }
+        for (Operand temp : temps.values()) {
+            entry.insert(index++, new Quadruple(OpType.ALLOC, temp, null, Operand.INT));
+        }
+    }
+}
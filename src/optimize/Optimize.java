@@ -1,53 +1,95 @@
 package optimize;
 
+import backend.config.*;
 import backend.data.*;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 public class Optimize {
+    private static final List<Pass> pipeline = List.of(Pass.REMOVE_DEAD_BLOCKS, Pass.DEAD_CODE_ELIMINATION, Pass.LCSE, Pass.DEAD_CODE_ELIMINATION, Pass.PARTIAL_REDUNDANCY_ELIMINATION, Pass.DEAD_CODE_ELIMINATION, Pass.LOOP_INVARIANT_CODE_MOTION, Pass.DEAD_CODE_ELIMINATION, Pass.STRENGTH_REDUCTION, Pass.DEAD_CODE_ELIMINATION, Pass.PEEPHOLE, Pass.DEAD_CODE_ELIMINATION);
+    private static final List<Pass> ssaPipeline = List.of(Pass.GLOBAL_VALUE_NUMBERING, Pass.SSA_COPY_PROPAGATION, Pass.SSA_DEAD_CODE_ELIMINATION);
+    private static final int inlineSizeLimit = 40;
+    private static final int inlineGrowthPercent = 100;
     private final IrList irList;
     private final ArrayList<Func> funcList = new ArrayList<>();
-    private IrList global = new IrList();
+    private final IrList global = new IrList();
+    private final int parallelism;
+    private final EnumMap<Pass, Long> times = new EnumMap<>(Pass.class);
+    private final EnumMap<Pass, Integer> runs = new EnumMap<>(Pass.class);
 
     public Optimize(IrList irList) {
+        this(irList, 1);
+    }
+
+    public Optimize(IrList irList, int parallelism) {
         this.irList = irList;
+        this.parallelism = parallelism;
     }
 
     public IrList optimize() {
-        String old;
-        do {
-            old = this.irList.toString();
-            splitFunc();
-            for (Func func : funcList) {
-                func.splitBlock();
-                func.buildGraph();
-                func.removeDeadBlocks();
-                func.globalConstantPropagation();
-                func.deadCodeElimination();
-                func.lcse();
-                func.deadCodeElimination();
-                func.loopInvariantCodeMotion();
-                func.deadCodeElimination();
-                func.strengthReduction();
-                func.deadCodeElimination();
-                func.peephole();
-                func.deadCodeElimination();
+        splitFunc();
+        new Inliner(funcList, inlineSizeLimit, inlineGrowthPercent).run();
+        SideEffects sideEffects = new SideEffects(funcList);
+        funcList.forEach(func -> func.setSideEffects(sideEffects));
+        if (parallelism > 1 && funcList.size() > 1) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(() -> funcList.parallelStream().forEach(this::optimizeUntilFixed)).join();
+            } finally {
+                pool.shutdown();
             }
-            this.irList.getIRList().clear();
-            this.irList.addAll(global);
-            for (Func func : funcList) {
-                this.irList.addAll(func.getIrList());
-            }
-            global = new IrList();
-            funcList.clear();
-        } while (!irList.toString().equals(old));
+        } else {
+            funcList.forEach(this::optimizeUntilFixed);
+        }
+        this.irList.clear();
+        this.irList.addAll(global);
+        for (Func func : funcList) {
+            this.irList.addAll(func.getIrList());
+        }
         return irList;
     }
 
+    private void optimizeUntilFixed(Func func) {
+        PassManager passManager = new PassManager(func);
+        passManager.run(Pass.TAIL_RECURSION_ELIMINATION);
+        boolean changed = true;
+        while (changed) {
+            runUntilFixed(passManager);
+            passManager.run(Pass.SSA_CONSTRUCTION);
+            changed = passManager.run(Pass.SPARSE_CONDITIONAL_CONSTANT_PROPAGATION);
+            passManager.run(ssaPipeline);
+            passManager.run(Pass.SSA_DESTRUCTION);
+        }
+        runUntilFixed(passManager);
+        synchronized (this) {
+            passManager.getTimes().forEach((pass, time) -> times.merge(pass, time, Long::sum));
+            passManager.getRuns().forEach((pass, count) -> runs.merge(pass, count, Integer::sum));
+        }
+    }
+
+    private void runUntilFixed(PassManager passManager) {
+        boolean changed = true;
+        while (changed) {
+            changed = passManager.run(pipeline);
+        }
+    }
+
+    public String getTimingReport() {
+        StringBuilder sb = new StringBuilder();
+        long total = 0;
+        for (Map.Entry<Pass, Long> entry : times.entrySet()) {
+            total += entry.getValue();
+            sb.append(String.format("%-40s %6d runs %10.3f ms%n", entry.getKey(), runs.get(entry.getKey()), entry.getValue() / 1e6));
+        }
+        sb.append(String.format("%-40s %6s      %10.3f ms%n", "TOTAL", "", total / 1e6));
+        return sb.toString();
+    }
+
     private void splitFunc() {
         TreeSet<Integer> index = new TreeSet<>();
         for (int i = 0; i < irList.size(); i++) {
-            if (irList.getIRList().get(i).op().equals("func_begin")) {
+            if (irList.getOp(i) == OpType.FUNC_BEGIN) {
                 index.add(i);
             }
         }
@@ -55,14 +97,14 @@ public class Optimize {
         ArrayList<Integer> list = new ArrayList<>(index);
 
         if (!list.isEmpty()) {
-            global.getIRList().addAll(irList.getIRList().subList(0, list.get(0)));
+            global.addAll(irList, 0, list.get(0));
         }
         for (int i = 0; i < list.size() - 1; i++) {
             int l = list.get(i);
             int r = list.get(i + 1);
             IrList temp = new IrList();
-            temp.getIRList().addAll(irList.getIRList().subList(l, r));
+            temp.addAll(irList, l, r);
             funcList.add(new Func(temp));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package optimize;
+
+import java.util.*;
+import java.util.function.*;
+
+public enum Pass {
+    REMOVE_DEAD_BLOCKS(Func::removeDeadBlocks, EnumSet.of(Analysis.CFG)),
+    TAIL_RECURSION_ELIMINATION(Func::tailRecursionElimination, EnumSet.of(Analysis.CFG)),
+    DEAD_CODE_ELIMINATION(Func::deadCodeElimination, EnumSet.of(Analysis.CFG, Analysis.LIVENESS), EnumSet.allOf(Analysis.class)),
+    LCSE(Func::lcse, EnumSet.of(Analysis.CFG), EnumSet.of(Analysis.CFG, Analysis.DOMINATORS, Analysis.LOOPS)),
+    PARTIAL_REDUNDANCY_ELIMINATION(Func::partialRedundancyElimination, EnumSet.of(Analysis.CFG)),
+    LOOP_INVARIANT_CODE_MOTION(Func::loopInvariantCodeMotion, EnumSet.of(Analysis.CFG, Analysis.REACHING_DEFINITIONS, Analysis.DOMINATORS, Analysis.LOOPS)),
+    STRENGTH_REDUCTION(Func::strengthReduction, EnumSet.of(Analysis.CFG), EnumSet.of(Analysis.CFG, Analysis.DOMINATORS, Analysis.LOOPS)),
+    PEEPHOLE(Func::peephole, EnumSet.of(Analysis.CFG)),
+    SSA_CONSTRUCTION(Func::toSsa, EnumSet.of(Analysis.CFG, Analysis.DOMINATORS), EnumSet.of(Analysis.CFG, Analysis.DOMINATORS, Analysis.LOOPS)),
+    SPARSE_CONDITIONAL_CONSTANT_PROPAGATION(Func::sparseConditionalConstantPropagation, EnumSet.of(Analysis.CFG), EnumSet.of(Analysis.CFG)),
+    GLOBAL_VALUE_NUMBERING(Func::globalValueNumbering, EnumSet.of(Analysis.CFG, Analysis.DOMINATORS), EnumSet.of(Analysis.CFG, Analysis.DOMINATORS, Analysis.LOOPS)),
+    SSA_COPY_PROPAGATION(Func::ssaCopyPropagation, EnumSet.of(Analysis.CFG), EnumSet.of(Analysis.CFG, Analysis.DOMINATORS, Analysis.LOOPS)),
+    SSA_DEAD_CODE_ELIMINATION(Func::ssaDeadCodeElimination, EnumSet.of(Analysis.CFG), EnumSet.of(Analysis.CFG, Analysis.DOMINATORS, Analysis.LOOPS)),
+    SSA_DESTRUCTION(Func::fromSsa, EnumSet.of(Analysis.CFG));
+
+    private final Predicate<Func> action;
+    private final EnumSet<Analysis> required;
+    private final EnumSet<Analysis> preserved;
+
+    Pass(Predicate<Func> action, EnumSet<Analysis> required) {
+        this(action, required, EnumSet.noneOf(Analysis.class));
+    }
+
+    Pass(Predicate<Func> action, EnumSet<Analysis> required, EnumSet<Analysis> preserved) {
+        this.action = action;
+        this.required = required;
+        this.preserved = preserved;
+    }
+
+    public boolean run(Func func) {
+        return action.test(func);
+    }
+
+    public EnumSet<Analysis> getRequired() {
+        return required;
+    }
+
+    public EnumSet<Analysis> getPreserved() {
+        return preserved;
+    }
+}
@@ -0,0 +1,43 @@
+package optimize;
+
+import java.util.*;
+
+public class PassManager {
+    private final Func func;
+    private final EnumMap<Pass, Long> times = new EnumMap<>(Pass.class);
+    private final EnumMap<Pass, Integer> runs = new EnumMap<>(Pass.class);
+
+    public PassManager(Func func) {
+        this.func = func;
+    }
+
+    public boolean run(List<Pass> pipeline) {
+        boolean changed = false;
+        for (Pass pass : pipeline) {
+            changed |= run(pass);
+        }
+        return changed;
+    }
+
+    public boolean run(Pass pass) {
+        long start = System.nanoTime();
+        for (Analysis analysis : pass.getRequired()) {
+            func.require(analysis);
+        }
+        boolean changed = pass.run(func);
+        if (changed) {
+            func.invalidate(pass.getPreserved());
+        }
+        times.merge(pass, System.nanoTime() - start, Long::sum);
+        runs.merge(pass, 1, Integer::sum);
+        return changed;
+    }
+
+    public EnumMap<Pass, Long> getTimes() {
+        return times;
+    }
+
+    public EnumMap<Pass, Integer> getRuns() {
+        return runs;
+    }
+}
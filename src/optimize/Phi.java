@@ -0,0 +1,41 @@
+package optimize;
+
+import backend.data.*;
+
+import java.util.*;
+
+public class Phi {
+    private final Operand var;
+    private Operand result;
+    private final LinkedHashMap<Block, Operand> incoming = new LinkedHashMap<>();
+
+    public Phi(Operand var) {
+        this.var = var;
+        this.result = var;
+    }
+
+    public Operand getVar() {
+        return var;
+    }
+
+    public Operand getResult() {
+        return result;
+    }
+
+    public void setResult(Operand result) {
+        this.result = result;
+    }
+
+    public LinkedHashMap<Block, Operand> getIncoming() {
+        return incoming;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("(phi");
+        for (Operand value : incoming.values()) {
+            sb.append(",").append(value);
+        }
+        return sb.append(",").append(result).append(")").toString();
+    }
+}
@@ -0,0 +1,105 @@
+package optimize;
+
+import backend.config.*;
+import backend.data.*;
+
+import java.util.*;
+
+public class ReachingDefinitions {
+    private final ArrayList<Block> siteBlocks = new ArrayList<>();
+    private final ArrayList<Operand> siteVars = new ArrayList<>();
+    private final HashMap<Operand, BitVector> sitesOf = new HashMap<>();
+    private final ArrayList<Operand> globals = new ArrayList<>();
+    private final SideEffects sideEffects;
+    private final Dataflow dataflow;
+
+    public ReachingDefinitions(List<Block> blockList, SideEffects sideEffects) {
+        this.sideEffects = sideEffects;
+        LinkedHashSet<Operand> globalSet = new LinkedHashSet<>();
+        for (Block block : blockList) {
+            for (Quad q : block.getIrList()) {
+                for (Operand operand : new Operand[]{q.arg1(), q.arg2(), q.result()}) {
+                    if (operand.isVar() && !operand.isLocal()) globalSet.add(operand);
+                }
+            }
+        }
+        globals.addAll(globalSet);
+        for (Block block : blockList) {
+            for (Quad q : block.getIrList()) {
+                if (q.getDef().isVar()) {
+                    siteBlocks.add(block);
+                    siteVars.add(q.getDef());
+                }
+                for (Operand global : clobbered(q)) {
+                    siteBlocks.add(block);
+                    siteVars.add(global);
+                }
+            }
+        }
+        int size = siteVars.size();
+        for (int i = 0; i < size; i++) {
+            sitesOf.computeIfAbsent(siteVars.get(i), k -> new BitVector(size)).set(i);
+        }
+        dataflow = new Dataflow(blockList, size, Dataflow.Direction.forward, Dataflow.Meet.union);
+        int site = 0;
+        for (Block block : blockList) {
+            BitVector gen = new BitVector(size);
+            BitVector kill = new BitVector(size);
+            for (Quad q : block.getIrList()) {
+                if (q.getDef().isVar()) {
+                    BitVector others = sitesOf.get(q.getDef());
+                    gen.andNot(others);
+                    kill.or(others);
+                    gen.set(site++);
+                }
+                for (int k = clobbered(q).size(); k > 0; k--) {
+                    gen.set(site++);
+                }
+            }
+            dataflow.setTransfer(block, gen, kill);
+        }
+        dataflow.solve();
+    }
+
+    private List<Operand> clobbered(Quad q) {
+        if (q.op() != OpType.CALL) return List.of();
+        ArrayList<Operand> result = new ArrayList<>();
+        for (Operand global : globals) {
+            if (global != q.getDef() && sideEffects.mayModify(q, global)) result.add(global);
+        }
+        return result;
+    }
+
+    public List<Definition> getDefinitions(Operand var) {
+        return collect(sitesOf(var), new ArrayList<>());
+    }
+
+    public List<Definition> getReaching(Block block, int index, Operand var) {
+        ArrayList<Definition> result = new ArrayList<>();
+        IrList irList = block.getIrList();
+        for (int i = index - 1; i >= 0; i--) {
+            if (irList.getDef(i) == var) {
+                result.add(new Definition(block, var));
+                return result;
+            }
+            if (irList.getOp(i) == OpType.CALL && !var.isLocal() && sideEffects.mayModify(irList.get(i), var)) result.add(new Definition(block, var));
+        }
+        BitVector set = sitesOf(var);
+        set.and(dataflow.getIn(block));
+        return collect(set, result);
+    }
+
+    private BitVector sitesOf(Operand var) {
+        return sitesOf.containsKey(var) ? sitesOf.get(var).copy() : new BitVector(siteVars.size());
+    }
+
+    private List<Definition> collect(BitVector set, ArrayList<Definition> result) {
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            result.add(new Definition(siteBlocks.get(i), siteVars.get(i)));
+        }
+        return result;
+    }
+
+    public record Definition(Block block, Operand var) {
+    }
+}
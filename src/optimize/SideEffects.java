@@ -0,0 +1,157 @@
+package optimize;
+
+import backend.config.*;
+import backend.data.*;
+
+import java.util.*;
+
+public class SideEffects {
+    private final HashMap<String, Summary> summaries = new HashMap<>();
+
+    public SideEffects() {
+    }
+
+    public SideEffects(List<Func> funcList) {
+        HashMap<String, Func> funcs = new HashMap<>();
+        for (Func func : funcList) {
+            funcs.put(func.getName(), func);
+        }
+        CallGraph callGraph = new CallGraph(funcList);
+        for (List<String> component : callGraph.getBottomUpComponents()) {
+            for (String name : component) {
+                summaries.put(name, new Summary(funcs.get(name).getIrList()));
+            }
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (String name : component) {
+                    Summary summary = new Summary(funcs.get(name).getIrList());
+                    summary.collect(funcs.get(name).getIrList(), this);
+                    if (callGraph.isRecursive(name)) summary.terminates = false;
+                    if (!summary.equals(summaries.get(name))) {
+                        summaries.put(name, summary);
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    public Summary getSummary(String name) {
+        return summaries.get(name);
+    }
+
+    public boolean mayModify(Quad call, Operand global) {
+        Summary summary = summaries.get(call.arg1().getName());
+        return summary == null || summary.modGlobals.contains(global);
+    }
+
+    public boolean writesMemory(Quad call) {
+        Summary summary = summaries.get(call.arg1().getName());
+        return summary == null || !summary.modParams.isEmpty() || summary.modGlobals.stream().anyMatch(global -> summary.arrays.contains(global));
+    }
+
+    public boolean isRemovable(Quad call) {
+        Summary summary = summaries.get(call.arg1().getName());
+        return summary != null && summary.isReadOnly() && summary.terminates;
+    }
+
+    public static class Summary {
+        private final ArrayList<Operand> params = new ArrayList<>();
+        private final HashSet<Operand> modGlobals = new HashSet<>();
+        private final HashSet<Operand> refGlobals = new HashSet<>();
+        private final HashSet<Integer> modParams = new HashSet<>();
+        private final HashSet<Integer> refParams = new HashSet<>();
+        private final HashSet<Operand> arrays = new HashSet<>();
+        private boolean io = false;
+        private boolean terminates = true;
+
+        private Summary(IrList irList) {
+            for (Quad q : irList) {
+                if (q.op() == OpType.FUNC_PARAM) params.add(q.arg1());
+            }
+        }
+
+        private void collect(IrList irList, SideEffects effects) {
+            HashSet<Operand> labels = new HashSet<>();
+            ArrayList<Quadruple> pending = new ArrayList<>();
+            for (Quad q : irList) {
+                Operand def = q.getDef();
+                if (def.isVar() && !def.isLocal()) modGlobals.add(def);
+                for (Operand use : q.getUses()) {
+                    if (!use.isLocal()) refGlobals.add(use);
+                }
+                switch (q.op()) {
+                    case LABEL -> labels.add(q.result());
+                    case J, BEQ -> {
+                        if (labels.contains(q.result())) terminates = false;
+                    }
+                    case LOAD -> ref(q.arg1());
+                    case STORE -> mod(q.result());
+                    case PRINT, PRINTF, GET_INT -> io = true;
+                    case PARAM -> pending.add(q.toQuadruple());
+                    case CALL -> {
+                        int count = q.arg2().getValue();
+                        List<Quadruple> args = pending.subList(pending.size() - count, pending.size());
+                        call(effects.getSummary(q.arg1().getName()), args);
+                        args.clear();
+                    }
+                }
+            }
+        }
+
+        private void call(Summary callee, List<Quadruple> args) {
+            if (callee == null) {
+                io = true;
+                terminates = false;
+                return;
+            }
+            modGlobals.addAll(callee.modGlobals);
+            refGlobals.addAll(callee.refGlobals);
+            arrays.addAll(callee.arrays);
+            io |= callee.io;
+            terminates &= callee.terminates;
+            for (int k = 0; k < args.size(); k++) {
+                if (args.get(k).arg2() != Operand.ARRAY) continue;
+                if (callee.modParams.contains(k)) mod(args.get(k).arg1());
+                if (callee.refParams.contains(k)) ref(args.get(k).arg1());
+            }
+        }
+
+        private void mod(Operand array) {
+            if (params.contains(array)) {
+                modParams.add(params.indexOf(array));
+            } else if (!array.isLocal()) {
+                modGlobals.add(array);
+                arrays.add(array);
+            }
+        }
+
+        private void ref(Operand array) {
+            if (params.contains(array)) {
+                refParams.add(params.indexOf(array));
+            } else if (!array.isLocal()) {
+                refGlobals.add(array);
+                arrays.add(array);
+            }
+        }
+
+        public boolean isReadOnly() {
+            return !io && modGlobals.isEmpty() && modParams.isEmpty();
+        }
+
+        public boolean isPure() {
+            return isReadOnly() && refGlobals.isEmpty() && refParams.isEmpty();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Summary other && modGlobals.equals(other.modGlobals) && refGlobals.equals(other.refGlobals) && modParams.equals(other.modParams) && refParams.equals(other.refParams) && arrays.equals(other.arrays) && io == other.io && terminates == other.terminates;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(modGlobals, refGlobals, modParams, refParams, arrays, io, terminates);
+        }
+    }
+}
@@ -0,0 +1,747 @@
+package optimize;
+
+import backend.config.*;
+import backend.data.*;
+import backend.utils.*;
+
+import java.util.*;
+import java.util.function.*;
+
+public class Ssa {
+    private final Func func;
+    private final ArrayList<Block> blockList;
+    private final LinkedHashSet<Operand> vars = new LinkedHashSet<>();
+    private final HashSet<Operand> params = new HashSet<>();
+    private final HashMap<String, Integer> versions = new HashMap<>();
+    private final HashMap<Operand, Operand> origins = new HashMap<>();
+    private final HashMap<Operand, ArrayDeque<Operand>> stacks = new HashMap<>();
+    private final LinkedHashSet<Operand> temps = new LinkedHashSet<>();
+    private int tempCounter = 0;
+    private int labelCounter = 0;
+    private int memoryCounter = 0;
+
+    public Ssa(Func func) {
+        this.func = func;
+        this.blockList = func.getBlockList();
+    }
+
+    public void construct() {
+        DominatorTree tree = func.getDominatorTree();
+        vars.clear();
+        params.clear();
+        origins.clear();
+        stacks.clear();
+        temps.clear();
+        collectVars();
+        insertPhis(tree);
+        rename(tree);
+    }
+
+    private boolean isSsaVar(Operand operand) {
+        return vars.contains(operand) || origins.containsKey(operand);
+    }
+
+    private void collectVars() {
+        for (Block block : blockList) {
+            Iterator<Quad> it = block.getIrList().iterator();
+            while (it.hasNext()) {
+                Quad q = it.next();
+                if (q.op() == OpType.ALLOC && q.result() != Operand.STATIC) {
+                    vars.add(q.arg1());
+                    it.remove();
+                } else if (q.op() == OpType.FUNC_PARAM && q.result() == Operand.INT) {
+                    vars.add(q.arg1());
+                    params.add(q.arg1());
+                }
+            }
+        }
+    }
+
+    private void insertPhis(DominatorTree tree) {
+        HashSet<Operand> nonLocal = new HashSet<>();
+        LinkedHashMap<Operand, LinkedHashSet<Block>> defSites = new LinkedHashMap<>();
+        for (Block block : blockList) {
+            HashSet<Operand> killed = new HashSet<>();
+            for (Quad q : block.getIrList()) {
+                for (Operand use : q.getUses()) {
+                    if (vars.contains(use) && !killed.contains(use)) nonLocal.add(use);
+                }
+                Operand def = q.getDef();
+                if (vars.contains(def)) {
+                    killed.add(def);
+                    defSites.computeIfAbsent(def, k -> new LinkedHashSet<>()).add(block);
+                }
+            }
+        }
+        for (Map.Entry<Operand, LinkedHashSet<Block>> entry : defSites.entrySet()) {
+            Operand var = entry.getKey();
+            if (!nonLocal.contains(var)) continue;
+            HashSet<Block> hasPhi = new HashSet<>();
+            ArrayDeque<Block> worklist = new ArrayDeque<>(entry.getValue());
+            HashSet<Block> queued = new HashSet<>(entry.getValue());
+            while (!worklist.isEmpty()) {
+                Block block = worklist.poll();
+                for (Block frontier : tree.getFrontier(block)) {
+                    if (hasPhi.add(frontier)) {
+                        frontier.getPhis().add(new Phi(var));
+                        if (queued.add(frontier)) {
+                            worklist.add(frontier);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private Operand newVersion(Operand var) {
+        String base = var.getName().contains(".") ? var.getName().substring(0, var.getName().indexOf('.')) : var.getName();
+        int version = versions.merge(base, 1, Integer::sum);
+        Operand operand = Operand.of(var.getType(), base + "." + version);
+        origins.put(operand, var);
+        stacks.computeIfAbsent(var, k -> new ArrayDeque<>()).push(operand);
+        return operand;
+    }
+
+    private Operand top(Operand var) {
+        ArrayDeque<Operand> stack = stacks.get(var);
+        return stack == null || stack.isEmpty() ? var : stack.peek();
+    }
+
+    private void rename(DominatorTree tree) {
+        if (tree.getOrder().isEmpty()) return;
+        HashMap<Block, ArrayList<Operand>> pushed = new HashMap<>();
+        ArrayDeque<Block> stack = new ArrayDeque<>();
+        stack.push(tree.getOrder().get(0));
+        while (!stack.isEmpty()) {
+            Block block = stack.pop();
+            if (pushed.containsKey(block)) {
+                for (Operand var : pushed.remove(block)) {
+                    stacks.get(var).pop();
+                }
+                continue;
+            }
+            ArrayList<Operand> defined = new ArrayList<>();
+            pushed.put(block, defined);
+            for (Phi phi : block.getPhis()) {
+                phi.setResult(newVersion(phi.getVar()));
+                defined.add(phi.getVar());
+            }
+            IrList newIr = new IrList(block.getIrList().size());
+            for (Quad q : block.getIrList()) {
+                newIr.add(q.rename(use -> vars.contains(use) ? top(use) : use, def -> {
+                    if (!vars.contains(def)) return def;
+                    defined.add(def);
+                    if (q.op() == OpType.FUNC_PARAM) {
+                        stacks.computeIfAbsent(def, k -> new ArrayDeque<>()).push(def);
+                        return def;
+                    }
+                    return newVersion(def);
+                }));
+            }
+            block.getIrList().clear();
+            block.getIrList().addAll(newIr);
+            for (Block next : new LinkedHashSet<>(block.getNexts())) {
+                for (Phi phi : next.getPhis()) {
+                    phi.getIncoming().put(block, top(phi.getVar()));
+                }
+            }
+            stack.push(block);
+            List<Block> children = tree.getChildren(block);
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+    }
+
+    public boolean sparseConditionalConstantPropagation() {
+        if (blockList.isEmpty()) return false;
+        HashMap<Operand, ArrayList<Object>> users = new HashMap<>();
+        IdentityHashMap<Object, Block> owners = new IdentityHashMap<>();
+        for (Block block : blockList) {
+            for (Phi phi : block.getPhis()) {
+                owners.put(phi, block);
+                for (Operand value : phi.getIncoming().values()) {
+                    users.computeIfAbsent(value, k -> new ArrayList<>()).add(phi);
+                }
+            }
+            for (Quad q : block.getIrList()) {
+                if (q.getUses().isEmpty()) continue;
+                Quadruple user = q.toQuadruple();
+                owners.put(user, block);
+                for (Operand use : user.getUses()) {
+                    users.computeIfAbsent(use, k -> new ArrayList<>()).add(user);
+                }
+            }
+        }
+        HashMap<Operand, Operand> lattice = new HashMap<>();
+        HashMap<Block, HashSet<Block>> executable = new HashMap<>();
+        ArrayDeque<Block[]> flowWorklist = new ArrayDeque<>();
+        ArrayDeque<Operand> ssaWorklist = new ArrayDeque<>();
+        flowWorklist.add(new Block[]{null, blockList.get(0)});
+        while (!flowWorklist.isEmpty() || !ssaWorklist.isEmpty()) {
+            while (!flowWorklist.isEmpty()) {
+                Block[] edge = flowWorklist.poll();
+                Block block = edge[1];
+                boolean reached = executable.containsKey(block);
+                if (!executable.computeIfAbsent(block, k -> new HashSet<>()).add(edge[0])) continue;
+                for (Phi phi : block.getPhis()) {
+                    visitPhi(phi, block, lattice, executable, ssaWorklist);
+                }
+                if (reached) continue;
+                for (Quad q : block.getIrList()) {
+                    visitQuad(q, block, lattice, flowWorklist, ssaWorklist);
+                }
+                Quadruple last = block.getLastQuad();
+                if (last == null || last.op() != OpType.BEQ) {
+                    for (Block next : block.getNexts()) {
+                        flowWorklist.add(new Block[]{block, next});
+                    }
+                }
+            }
+            while (!ssaWorklist.isEmpty() && flowWorklist.isEmpty()) {
+                for (Object user : users.getOrDefault(ssaWorklist.poll(), new ArrayList<>())) {
+                    Block block = owners.get(user);
+                    if (!executable.containsKey(block)) continue;
+                    if (user instanceof Phi phi) {
+                        visitPhi(phi, block, lattice, executable, ssaWorklist);
+                    } else {
+                        visitQuad((Quad) user, block, lattice, flowWorklist, ssaWorklist);
+                    }
+                }
+            }
+        }
+        return rewriteConstants(lattice, executable);
+    }
+
+    private Operand valueOf(Operand operand, HashMap<Operand, Operand> lattice) {
+        if (operand.isImmediate()) return operand;
+        return origins.containsKey(operand) ? lattice.get(operand) : Operand.NONE;
+    }
+
+    private void lower(Operand var, Operand value, HashMap<Operand, Operand> lattice, ArrayDeque<Operand> ssaWorklist) {
+        Operand old = lattice.get(var);
+        if (value == null || old == Operand.NONE || old == value) return;
+        lattice.put(var, old == null ? value : Operand.NONE);
+        ssaWorklist.add(var);
+    }
+
+    private void visitPhi(Phi phi, Block block, HashMap<Operand, Operand> lattice, HashMap<Block, HashSet<Block>> executable, ArrayDeque<Operand> ssaWorklist) {
+        HashSet<Block> preds = executable.get(block);
+        for (Map.Entry<Block, Operand> entry : phi.getIncoming().entrySet()) {
+            if (preds.contains(entry.getKey())) {
+                lower(phi.getResult(), valueOf(entry.getValue(), lattice), lattice, ssaWorklist);
+            }
+        }
+    }
+
+    private void visitQuad(Quad q, Block block, HashMap<Operand, Operand> lattice, ArrayDeque<Block[]> flowWorklist, ArrayDeque<Operand> ssaWorklist) {
+        if (q.op() == OpType.BEQ) {
+            Operand a = valueOf(q.arg1(), lattice);
+            Operand b = valueOf(q.arg2(), lattice);
+            if (a == null || b == null) return;
+            for (Block next : block.getNexts()) {
+                boolean taken = next.getLabel() == q.result();
+                if (a == Operand.NONE || b == Operand.NONE || (a.getValue() == b.getValue()) == taken || block.getNexts().size() == 1) {
+                    flowWorklist.add(new Block[]{block, next});
+                }
+            }
+            return;
+        }
+        Operand def = q.getDef();
+        if (!origins.containsKey(def)) return;
+        if (q.op() == OpType.ASSIGN) {
+            lower(def, valueOf(q.arg1(), lattice), lattice, ssaWorklist);
+        } else if (q.op().canCalculate()) {
+            Operand a = valueOf(q.arg1(), lattice);
+            Operand b = valueOf(q.arg2(), lattice);
+            if (a == Operand.NONE || b == Operand.NONE || ((q.op() == OpType.DIV || q.op() == OpType.MOD) && b != null && b.getValue() == 0)) {
+                lower(def, Operand.NONE, lattice, ssaWorklist);
+            } else if (a != null && b != null) {
+                lower(def, Operand.of(Calculate.getRes(q.op(), a.getValue(), b.getValue())), lattice, ssaWorklist);
+            }
+        } else {
+            lower(def, Operand.NONE, lattice, ssaWorklist);
+        }
+    }
+
+    private boolean rewriteConstants(HashMap<Operand, Operand> lattice, HashMap<Block, HashSet<Block>> executable) {
+        boolean changed = false;
+        UnaryOperator<Operand> fold = operand -> {
+            Operand value = valueOf(operand, lattice);
+            return value != null && value.isImmediate() ? value : operand;
+        };
+        for (Block block : blockList) {
+            HashSet<Block> preds = executable.getOrDefault(block, new HashSet<>());
+            for (Block pred : new ArrayList<>(block.getPrevs())) {
+                if (!preds.contains(pred)) {
+                    block.getPrevs().removeIf(b -> b == pred);
+                    pred.getNexts().removeIf(b -> b == block);
+                    changed = true;
+                }
+            }
+        }
+        for (Block block : blockList) {
+            if (!executable.containsKey(block)) continue;
+            changed |= block.getPhis().removeIf(phi -> fold.apply(phi.getResult()).isImmediate());
+            for (Phi phi : block.getPhis()) {
+                phi.getIncoming().keySet().retainAll(executable.get(block));
+                phi.getIncoming().replaceAll((pred, value) -> fold.apply(value));
+            }
+            IrList newIr = new IrList(block.getIrList().size());
+            for (Quad q : block.getIrList()) {
+                Quadruple folded = q.rename(fold, def -> def);
+                Operand value = fold.apply(q.getDef());
+                if (q.op() == OpType.BEQ) {
+                    if (block.getNexts().size() == 1 && block.getNexts().get(0).getLabel() == q.result()) {
+                        folded = new Quadruple(OpType.J, null, null, q.result());
+                    } else if (block.getNexts().size() == 1 && folded.arg1().isImmediate() && folded.arg2().isImmediate()) {
+                        changed = true;
+                        continue;
+                    }
+                } else if (value.isImmediate() && q.op() != OpType.ASSIGN) {
+                    folded = new Quadruple(OpType.ASSIGN, value, null, q.getDef());
+                }
+                changed |= !folded.matches(q);
+                newIr.add(folded);
+            }
+            block.getIrList().clear();
+            block.getIrList().addAll(newIr);
+        }
+        Block end = blockList.get(blockList.size() - 1);
+        changed |= blockList.removeIf(block -> block != end && !executable.containsKey(block));
+        return changed;
+    }
+
+    public boolean globalValueNumbering() {
+        DominatorTree tree = func.getDominatorTree();
+        if (tree.getOrder().isEmpty()) return false;
+        HashSet<Operand> localArrays = new HashSet<>();
+        for (Block block : blockList) {
+            for (Quad q : block.getIrList()) {
+                if (q.op() == OpType.ARRAY_ALLOC) localArrays.add(q.arg1());
+            }
+        }
+        HashMap<Operand, Operand> leaders = new HashMap<>();
+        HashMap<List<Object>, Operand> table = new HashMap<>();
+        HashMap<Block, ArrayList<List<Object>>> scopes = new HashMap<>();
+        HashMap<Block, MemoryState> states = new HashMap<>();
+        UnaryOperator<Operand> leader = operand -> leaders.getOrDefault(operand, operand);
+        boolean changed = false;
+        ArrayDeque<Block> stack = new ArrayDeque<>();
+        stack.push(tree.getOrder().get(0));
+        while (!stack.isEmpty()) {
+            Block block = stack.pop();
+            if (scopes.containsKey(block)) {
+                table.keySet().removeAll(scopes.remove(block));
+                states.remove(block);
+                continue;
+            }
+            ArrayList<List<Object>> scope = new ArrayList<>();
+            scopes.put(block, scope);
+            Block idom = tree.getIdom(block);
+            MemoryState memory = idom == null ? new MemoryState() : states.get(idom).copy();
+            if (block.getPrevs().size() != 1 || block.getPrevs().get(0) != idom) {
+                memory.killAll();
+            }
+            states.put(block, memory);
+            Iterator<Phi> phis = block.getPhis().iterator();
+            while (phis.hasNext()) {
+                Phi phi = phis.next();
+                ArrayList<Object> key = new ArrayList<>(List.of(block));
+                Operand same = null;
+                for (Operand value : phi.getIncoming().values()) {
+                    Operand v = leader.apply(value);
+                    key.add(v);
+                    if (v != phi.getResult()) same = same == null || same == v ? v : Operand.NONE;
+                }
+                if (same != null && same != Operand.NONE) {
+                    leaders.put(phi.getResult(), same);
+                } else if (!valueNumber(key, phi.getResult(), table, scope, leaders)) {
+                    continue;
+                }
+                phis.remove();
+                changed = true;
+            }
+            IrList newIr = new IrList(block.getIrList().size());
+            for (Quad q : block.getIrList()) {
+                Quadruple renamed = q.rename(leader, def -> def);
+                Operand def = q.getDef();
+                boolean redundant = false;
+                switch (q.op()) {
+                    case ASSIGN -> {
+                        if (origins.containsKey(def) && isStable(renamed.arg1())) {
+                            leaders.put(def, renamed.arg1());
+                            redundant = true;
+                        }
+                    }
+                    case LOAD -> {
+                        if (origins.containsKey(def) && isStable(renamed.arg2())) {
+                            redundant = valueNumber(List.of(OpType.LOAD, renamed.arg1(), renamed.arg2(), memory.generation(renamed.arg1(), localArrays)), def, table, scope, leaders);
+                        }
+                    }
+                    case STORE -> {
+                        memory.store(renamed.result(), localArrays);
+                        if (isStable(renamed.arg1()) && isStable(renamed.arg2())) {
+                            List<Object> key = List.of(OpType.LOAD, renamed.result(), renamed.arg2(), memory.generation(renamed.result(), localArrays));
+                            table.put(key, renamed.arg1());
+                            scope.add(key);
+                        }
+                    }
+                    case CALL -> {
+                        if (func.getSideEffects().writesMemory(q)) memory.killAll();
+                    }
+                    default -> {
+                        if (q.op().canCalculate() && origins.containsKey(def) && isStable(renamed.arg1()) && isStable(renamed.arg2())) {
+                            Operand a = renamed.arg1();
+                            Operand b = renamed.arg2();
+                            if (q.op().canSwap() && a.compareTo(b) > 0) {
+                                Operand temp = a;
+                                a = b;
+                                b = temp;
+                            }
+                            redundant = valueNumber(List.of(q.op(), a, b), def, table, scope, leaders);
+                        }
+                    }
+                }
+                if (redundant) {
+                    changed = true;
+                } else {
+                    newIr.add(renamed);
+                }
+            }
+            block.getIrList().clear();
+            block.getIrList().addAll(newIr);
+            stack.push(block);
+            List<Block> children = tree.getChildren(block);
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+        for (Block block : blockList) {
+            for (Phi phi : block.getPhis()) {
+                phi.getIncoming().replaceAll((pred, value) -> resolve(leaders, value));
+            }
+        }
+        return changed;
+    }
+
+    private boolean isStable(Operand operand) {
+        return operand.isImmediate() || operand.isNone() || isSsaVar(operand);
+    }
+
+    private boolean valueNumber(List<Object> key, Operand def, HashMap<List<Object>, Operand> table, ArrayList<List<Object>> scope, HashMap<Operand, Operand> leaders) {
+        Operand existing = table.get(key);
+        if (existing != null) {
+            leaders.put(def, existing);
+            return true;
+        }
+        table.put(key, def);
+        scope.add(key);
+        return false;
+    }
+
+    public boolean copyPropagation() {
+        HashMap<Operand, Operand> copyOf = new HashMap<>();
+        for (Block block : blockList) {
+            for (Phi phi : block.getPhis()) {
+                Operand value = null;
+                for (Operand incoming : phi.getIncoming().values()) {
+                    if (incoming == phi.getResult() || incoming == value) continue;
+                    value = value == null ? incoming : Operand.NONE;
+                }
+                if (value != null && value != Operand.NONE) copyOf.put(phi.getResult(), value);
+            }
+            for (Quad q : block.getIrList()) {
+                if (q.op() == OpType.ASSIGN && isSsaVar(q.result()) && (isSsaVar(q.arg1()) || q.arg1().isImmediate())) {
+                    copyOf.put(q.result(), q.arg1());
+                }
+            }
+        }
+        if (copyOf.isEmpty()) return false;
+        for (Block block : blockList) {
+            block.getPhis().removeIf(phi -> copyOf.containsKey(phi.getResult()));
+            for (Phi phi : block.getPhis()) {
+                phi.getIncoming().replaceAll((pred, value) -> resolve(copyOf, value));
+            }
+            IrList newIr = new IrList(block.getIrList().size());
+            for (Quad q : block.getIrList()) {
+                if (q.op() == OpType.ASSIGN && copyOf.containsKey(q.result())) continue;
+                newIr.add(q.rename(use -> resolve(copyOf, use), def -> def));
+            }
+            block.getIrList().clear();
+            block.getIrList().addAll(newIr);
+        }
+        return true;
+    }
+
+    private Operand resolve(HashMap<Operand, Operand> copyOf, Operand operand) {
+        Operand value = operand;
+        for (int i = 0; i <= copyOf.size() && copyOf.containsKey(value); i++) {
+            value = copyOf.get(value);
+        }
+        return value;
+    }
+
+    public boolean deadCodeElimination() {
+        HashMap<Operand, List<Operand>> operandsOf = new HashMap<>();
+        ArrayDeque<Operand> worklist = new ArrayDeque<>();
+        for (Block block : blockList) {
+            for (Phi phi : block.getPhis()) {
+                operandsOf.put(phi.getResult(), new ArrayList<>(phi.getIncoming().values()));
+            }
+            for (Quad q : block.getIrList()) {
+                if (isRemovable(q)) {
+                    operandsOf.computeIfAbsent(q.getDef(), k -> new ArrayList<>()).addAll(q.getUses());
+                } else {
+                    worklist.addAll(q.getUses());
+                }
+            }
+        }
+        HashSet<Operand> live = new HashSet<>();
+        while (!worklist.isEmpty()) {
+            Operand operand = worklist.poll();
+            if (live.add(operand) && operandsOf.containsKey(operand)) {
+                worklist.addAll(operandsOf.get(operand));
+            }
+        }
+        boolean changed = false;
+        for (Block block : blockList) {
+            changed |= block.getPhis().removeIf(phi -> !live.contains(phi.getResult()));
+            Iterator<Quad> it = block.getIrList().iterator();
+            while (it.hasNext()) {
+                Quad q = it.next();
+                if (isRemovable(q) && !live.contains(q.getDef())) {
+                    it.remove();
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private boolean isRemovable(Quad q) {
+        return (q.op() == OpType.ASSIGN || q.op() == OpType.LOAD || q.op().canCalculate()) && isSsaVar(q.getDef());
+    }
+
+    public void destruct() {
+        ArrayList<Block> detached = new ArrayList<>();
+        HashMap<Block, HashSet<Operand>> liveIn = computeLiveIn();
+        for (Block block : new ArrayList<>(blockList)) {
+            if (block.getPhis().isEmpty()) continue;
+            for (Block pred : new LinkedHashSet<>(block.getPrevs())) {
+                ArrayList<Operand[]> copies = new ArrayList<>();
+                for (Phi phi : block.getPhis()) {
+                    Operand value = phi.getIncoming().get(pred);
+                    if (value != null && value != phi.getResult()) {
+                        copies.add(new Operand[]{phi.getResult(), value});
+                    }
+                }
+                if (copies.isEmpty()) continue;
+                placeCopies(pred, block, copies, detached, liveIn);
+            }
+        }
+        for (Block block : blockList) {
+            block.getPhis().clear();
+        }
+        if (!detached.isEmpty()) {
+            Block end = blockList.get(blockList.size() - 1);
+            Operand endLabel = labelOf(end);
+            if (blockList.size() > 1) {
+                Block last = blockList.get(blockList.size() - 2);
+                Quadruple lastQuad = last.getLastQuad();
+                if (lastQuad == null || (lastQuad.op() != OpType.J && lastQuad.op() != OpType.RET)) {
+                    last.getIrList().add(OpType.J, null, null, endLabel);
+                }
+            }
+            blockList.addAll(blockList.size() - 1, detached);
+        }
+        insertAllocs();
+    }
+
+    private void placeCopies(Block pred, Block block, ArrayList<Operand[]> copies, ArrayList<Block> detached, HashMap<Block, HashSet<Operand>> liveIn) {
+        IrList predIr = pred.getIrList();
+        Quadruple last = pred.getLastQuad();
+        if (last == null || last.op() != OpType.BEQ || canHoist(pred, block, copies, liveIn)) {
+            int index = last != null && (last.op() == OpType.J || last.op() == OpType.BEQ) ? predIr.size() - 1 : predIr.size();
+            for (Quad q : sequentialize(copies)) {
+                predIr.insert(index++, q);
+            }
+            return;
+        }
+        if (last.result() == block.getLabel()) {
+            Operand split = Operand.of(OperandType.Label, "ssa_split_" + func.getName() + "_" + (labelCounter++));
+            IrList splitIr = new IrList();
+            splitIr.add(OpType.LABEL, null, null, split);
+            splitIr.addAll(sequentialize(copies));
+            splitIr.add(OpType.J, null, null, block.getLabel());
+            predIr.set(predIr.size() - 1, new Quadruple(OpType.BEQ, last.arg1(), last.arg2(), split));
+            detached.add(new Block(splitIr));
+        }
+        int index = blockList.indexOf(pred);
+        if (index + 1 < blockList.size() && blockList.get(index + 1) == block) {
+            blockList.add(index + 1, new Block(sequentialize(copies)));
+        }
+    }
+
+    private boolean canHoist(Block pred, Block block, ArrayList<Operand[]> copies, HashMap<Block, HashSet<Operand>> liveIn) {
+        Quadruple branch = pred.getLastQuad();
+        for (Block other : pred.getNexts()) {
+            if (other == block) continue;
+            for (Operand[] copy : copies) {
+                if (copy[0] == branch.arg1() || copy[0] == branch.arg2() || liveIn.get(other).contains(copy[0])) {
+                    return false;
+                }
+                for (Phi phi : other.getPhis()) {
+                    if (phi.getIncoming().get(pred) == copy[0]) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private HashMap<Block, HashSet<Operand>> computeLiveIn() {
+        HashMap<Block, HashSet<Operand>> uses = new HashMap<>();
+        HashMap<Block, HashSet<Operand>> defs = new HashMap<>();
+        HashMap<Block, HashSet<Operand>> liveIn = new HashMap<>();
+        for (Block block : blockList) {
+            HashSet<Operand> use = new HashSet<>();
+            HashSet<Operand> def = new HashSet<>();
+            for (Phi phi : block.getPhis()) {
+                def.add(phi.getResult());
+            }
+            for (Quad q : block.getIrList()) {
+                for (Operand operand : q.getUses()) {
+                    if (isSsaVar(operand) && !def.contains(operand)) use.add(operand);
+                }
+                if (isSsaVar(q.getDef())) def.add(q.getDef());
+            }
+            uses.put(block, use);
+            defs.put(block, def);
+            liveIn.put(block, new HashSet<>(use));
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = blockList.size() - 1; i >= 0; i--) {
+                Block block = blockList.get(i);
+                HashSet<Operand> in = liveIn.get(block);
+                int size = in.size();
+                for (Block next : block.getNexts()) {
+                    for (Operand operand : liveIn.get(next)) {
+                        if (!defs.get(block).contains(operand)) in.add(operand);
+                    }
+                    for (Phi phi : next.getPhis()) {
+                        Operand operand = phi.getIncoming().get(block);
+                        if (operand != null && isSsaVar(operand) && !defs.get(block).contains(operand)) in.add(operand);
+                    }
+                }
+                changed |= in.size() != size;
+            }
+        }
+        return liveIn;
+    }
+
+    private IrList sequentialize(ArrayList<Operand[]> copies) {
+        IrList sequence = new IrList();
+        ArrayList<Operand[]> pending = new ArrayList<>();
+        for (Operand[] copy : copies) {
+            pending.add(copy.clone());
+        }
+        while (!pending.isEmpty()) {
+            Operand[] ready = null;
+            for (Operand[] copy : pending) {
+                boolean blocked = false;
+                for (Operand[] other : pending) {
+                    if (other != copy && other[1] == copy[0]) {
+                        blocked = true;
+                        break;
+                    }
+                }
+                if (!blocked) {
+                    ready = copy;
+                    break;
+                }
+            }
+            if (ready != null) {
+                sequence.add(OpType.ASSIGN, ready[1], null, ready[0]);
+                pending.remove(ready);
+                continue;
+            }
+            Operand[] copy = pending.get(0);
+            Operand temp = Operand.of(OperandType.Temp, "ssa_tmp_" + func.getName() + "_" + (tempCounter++));
+            temps.add(temp);
+            sequence.add(OpType.ASSIGN, copy[0], null, temp);
+            for (Operand[] other : pending) {
+                if (other[1] == copy[0]) other[1] = temp;
+            }
+        }
+        return sequence;
+    }
+
+    private Operand labelOf(Block block) {
+        Operand label = block.getLabel();
+        if (label == null) {
+            label = Operand.of(OperandType.Label, "ssa_end_" + func.getName() + "_" + (labelCounter++));
+            block.getIrList().insert(0, new Quadruple(OpType.LABEL, null, null, label));
+        }
+        return label;
+    }
+
+    private void insertAllocs() {
+        LinkedHashSet<Operand> used = new LinkedHashSet<>();
+        for (Block block : blockList) {
+            for (Quad q : block.getIrList()) {
+                for (Operand operand : new Operand[]{q.arg1(), q.arg2(), q.result()}) {
+                    if ((isSsaVar(operand) || temps.contains(operand)) && !params.contains(operand)) {
+                        used.add(operand);
+                    }
+                }
+            }
+        }
+        IrList entry = blockList.get(0).getIrList();
+        int index = 0;
+        while (index < entry.size() && (entry.getOp(index) == OpType.FUNC_BEGIN || entry.getOp(index) == OpType.FUNC_PARAM)) {
+            index++;
+        }
+        for (Operand var : used) {
+            entry.insert(index++, new Quadruple(OpType.ALLOC, var, null, Operand.INT));
+        }
+    }
+
+    private class MemoryState {
+        private final HashMap<Operand, Integer> local;
+        private int shared;
+        private int epoch;
+
+        private MemoryState() {
+            this(new HashMap<>(), 0, 0);
+        }
+
+        private MemoryState(HashMap<Operand, Integer> local, int shared, int epoch) {
+            this.local = local;
+            this.shared = shared;
+            this.epoch = epoch;
+        }
+
+        private MemoryState copy() {
+            return new MemoryState(new HashMap<>(local), shared, epoch);
+        }
+
+        private int generation(Operand array, HashSet<Operand> localArrays) {
+            return localArrays.contains(array) ? local.getOrDefault(array, epoch) : Math.max(shared, epoch);
+        }
+
+        private void store(Operand array, HashSet<Operand> localArrays) {
+            if (localArrays.contains(array)) {
+                local.put(array, ++memoryCounter);
+            } else {
+                shared = ++memoryCounter;
+            }
+        }
+
+        private void killAll() {
+            local.clear();
+            epoch = ++memoryCounter;
+        }
+    }
+}
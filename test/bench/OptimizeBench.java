@@ -0,0 +1,89 @@
+import backend.config.*;
+import backend.data.*;
+import backend.ir.*;
+import backend.mips.*;
+import frontend.data.*;
+import frontend.element.*;
+import frontend.lexer.*;
+import frontend.parser.*;
+import frontend.symbol.*;
+import optimize.*;
+
+import java.nio.*;
+import java.util.*;
+
+public class OptimizeBench {
+    private static final int[] multipliers = {2, 3, 5, 7, 8};
+    private static final int[] divisors = {2, 4, 8, 16};
+    private static final int[] moduli = {3, 4, 7, 8, 9, 11};
+
+    // usage: java OptimizeBench [functions] [rounds] [parallelism...]; reports the best of the rounds after one warm-up round
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        ArrayList<Integer> levels = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            levels.add(Integer.parseInt(args[i]));
+        }
+        if (levels.isEmpty()) {
+            levels.addAll(List.of(1, 2, 4, 8));
+        }
+        CompUnit compUnit = new Parser(new Lexer(CharBuffer.wrap(generate(functions)))).parseCompUnit();
+        SymbolTree symbolTree = new Visitor(compUnit).visitCompUnit();
+        System.out.printf("%d functions, %d available processors%n", functions, Runtime.getRuntime().availableProcessors());
+        String reference = null;
+        long[] best = new long[levels.size()];
+        boolean[] identical = new boolean[levels.size()];
+        Arrays.fill(best, Long.MAX_VALUE);
+        Arrays.fill(identical, true);
+        int size = 0;
+        for (int round = 0; round <= rounds; round++) {
+            for (int k = 0; k < levels.size(); k++) {
+                IrList irList = new IrGenerator(compUnit, symbolTree).generateCompUnit();
+                long start = System.nanoTime();
+                IrList optimized = new Optimize(irList, levels.get(k)).optimize();
+                long time = System.nanoTime() - start;
+                String output = optimized + "\n" + new MipsGenerator(optimized, MipsGenerator.Mode.coloring, Latency.DEFAULT).generate();
+                if (reference == null) {
+                    reference = output;
+                }
+                identical[k] &= output.equals(reference);
+                size = optimized.size();
+                if (round > 0) {
+                    best[k] = Math.min(best[k], time);
+                }
+            }
+        }
+        for (int k = 0; k < levels.size(); k++) {
+            System.out.printf("parallelism %-3d %10.1f ms %8d quads  identical=%b%n", levels.get(k), best[k] / 1e6, size, identical[k]);
+        }
+    }
+
+    private static String generate(int functions) {
+        Random random = new Random(functions);
+        StringBuilder sb = new StringBuilder("int g = 1;\nint data[64];\n");
+        for (int f = 0; f < functions; f++) {
+            sb.append("int f").append(f).append("(int a, int b) {\n");
+            sb.append("    int i = 0; int s = 0; int t = 0;\n");
+            for (int loop = 0; loop < 6; loop++) {
+                sb.append("    while (i < ").append(10 + loop).append(") {\n");
+                sb.append("        t = a * ").append(pick(random, multipliers)).append(" + b / ").append(pick(random, divisors)).append(" + ").append(loop).append(";\n");
+                sb.append("        s = s + t % ").append(pick(random, moduli)).append(" + data[i % 64] * 8 - (a + b) * (a + b);\n");
+                sb.append("        if (s > 10000) { s = s - 10000; }\n");
+                sb.append("        i = i + 1;\n");
+                sb.append("    }\n");
+                sb.append("    i = 0;\n");
+            }
+            if (f > 0) {
+                sb.append("    s = s + f").append(f - 1).append("(a - 1, b) % 3;\n");
+            }
+            sb.append("    return s;\n}\n");
+        }
+        sb.append("int main() {\n    int x = getint();\n    printf(\"%d\\n\", f").append(functions - 1).append("(x, 3));\n    return 0;\n}\n");
+        return sb.toString();
+    }
+
+    private static int pick(Random random, int[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
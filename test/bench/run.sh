@@ -0,0 +1,9 @@
+#!/bin/bash
+# usage: test/bench/run.sh [functions] [rounds] [parallelism...]
+# Optimizes a generated program at each parallelism level and prints the
+# best time over the rounds and whether ir.txt + mips.txt match level one.
+root=$(cd "$(dirname "$0")/../.." && pwd)
+build=$(mktemp -d)
+trap 'rm -rf "$build"' EXIT
+javac -nowarn -encoding UTF-8 -d "$build" $(find "$root/src" -name '*.java') "$root/test/bench/OptimizeBench.java" || exit 1
+java -cp "$build" OptimizeBench "$@"
@@ -0,0 +1,31 @@
+#!/bin/bash
+# usage: MARS=/path/to/Mars.jar test/run.sh [case...]
+# SIM overrides the whole simulator command; it is run as "$SIM mips.txt".
+# Each case directory holds testfile.txt, an optional input.txt, and the
+# expected error.txt and/or output.txt (program output under MARS).
+root=$(cd "$(dirname "$0")/.." && pwd)
+build=$(mktemp -d)
+trap 'rm -rf "$build"' EXIT
+javac -nowarn -encoding UTF-8 -d "$build/classes" $(find "$root/src" -name '*.java') || exit 1
+cases=${@:-$(dirname $(ls "$root"/test/*/testfile.txt))}
+failed=0
+for dir in $cases; do
+  name=$(basename "$dir")
+  work="$build/$name"
+  mkdir -p "$work"
+  cp "$dir/testfile.txt" "$work/"
+  (cd "$work" && timeout 60 java -cp "$build/classes" Compiler > /dev/null 2>&1)
+  status=ok
+  if [ -f "$dir/error.txt" ] && ! cmp -s "$dir/error.txt" "$work/error.txt"; then
+    status="error.txt differs"
+  fi
+  if [ -f "$dir/output.txt" ]; then
+    input="$dir/input.txt"
+    [ -f "$input" ] || input=/dev/null
+    (cd "$work" && timeout 60 ${SIM:-java -jar ${MARS:-Mars.jar} nc} mips.txt < "$input" > output.txt 2>/dev/null)
+    cmp -s "$dir/output.txt" "$work/output.txt" || status="output.txt differs"
+  fi
+  [ "$status" = ok ] || failed=1
+  echo "$name: $status"
+done
+exit $failed